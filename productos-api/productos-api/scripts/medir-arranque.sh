@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Mide el tiempo hasta la primera respuesta y la memoria residente (RSS) de una variante de arranque.
+#
+# Uso: scripts/medir-arranque.sh <nombre> <comando...>
+# El comando debe levantar la aplicación en el puerto 8080 (o el indicado en PUERTO).
+#
+# Variantes (desde productos-api/productos-api, con el jar correspondiente recién compilado):
+#   mvn package -DskipTests
+#     scripts/medir-arranque.sh jar        java -jar target/productos-api-1.0.0.jar
+#     scripts/medir-arranque.sh rapido     java -jar target/productos-api-1.0.0.jar --spring.profiles.active=rapido
+#   mvn -Paot package -DskipTests
+#     scripts/medir-arranque.sh aot        java -Dspring.aot.enabled=true -jar target/productos-api-1.0.0.jar --spring.profiles.active=rapido
+#   mvn -Pcds package -DskipTests        (o -Paot,cds; en ese caso agregar -Dspring.aot.enabled=true y el perfil rapido)
+#     scripts/medir-arranque.sh cds        java -XX:SharedArchiveFile=target/app/productos-api.jsa -jar target/app/productos-api-1.0.0-cds.jar
+#   mvn -Pnative native:compile -DskipTests   (requiere GraalVM)
+#     scripts/medir-arranque.sh nativo     target/productos-api --spring.profiles.active=rapido
+set -euo pipefail
+
+NOMBRE=$1; shift
+PUERTO=${PUERTO:-8080}
+REPETICIONES=${REPETICIONES:-3}
+URL="http://localhost:${PUERTO}/api/productos?limit=1"
+
+for i in $(seq 1 "$REPETICIONES"); do
+    inicio=$(date +%s%N)
+    "$@" --server.port="$PUERTO" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$NOMBRE: la aplicación terminó antes de responder" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    fin=$(date +%s%N)
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+    printf '%s\tintento %d\tprimera respuesta: %5d ms\tRSS: %4d MB\n' \
+        "$NOMBRE" "$i" $(( (fin - inicio) / 1000000 )) $(( rss / 1024 ))
+done
@@ -1,9 +1,14 @@
 package com.utn.productos_api;
 
+import com.utn.productos_api.config.ProductosRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(ProductosRuntimeHints.class)
 public class ProductosApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,50 @@
+package com.utn.productos_api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Control de admisión delante de {@code ProductoController} (ver {@link AdmisionInterceptor}).
+ *
+ * El stream SSE queda afuera: sus conexiones duran minutos y casi no consumen recursos mientras esperan.
+ * Se desactiva con {@code productos.admision.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "productos.admision.enabled")
+public class AdmisionConfig implements WebMvcConfigurer {
+
+    private final AdmisionInterceptor interceptor;
+
+    public AdmisionConfig(MeterRegistry meterRegistry,
+                          @Value("${productos.admision.limite-minimo:2}") int limiteMinimo,
+                          @Value("${productos.admision.lectura.limite-inicial:50}") int lecturaInicial,
+                          @Value("${productos.admision.lectura.limite-maximo:400}") int lecturaMaximo,
+                          @Value("${productos.admision.escritura.limite-inicial:20}") int escrituraInicial,
+                          @Value("${productos.admision.escritura.limite-maximo:200}") int escrituraMaximo,
+                          @Value("${productos.admision.masivo.limite-inicial:2}") int masivoInicial,
+                          @Value("${productos.admision.masivo.limite-maximo:4}") int masivoMaximo,
+                          @Value("${productos.admision.margen-lecturas:0.8}") double margenLecturas,
+                          @Value("${productos.admision.retry-after:1s}") Duration reintentarEn) {
+        this.interceptor = new AdmisionInterceptor(
+                new LimiteConcurrencia("lectura", lecturaInicial, limiteMinimo, lecturaMaximo, meterRegistry),
+                new LimiteConcurrencia("escritura", escrituraInicial, limiteMinimo, escrituraMaximo, meterRegistry),
+                new LimiteConcurrencia("masivo", masivoInicial, 1, masivoMaximo, meterRegistry),
+                margenLecturas, reintentarEn);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Antes que el resto: una petición rechazada no debe hacer ningún otro trabajo
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/api/productos/**")
+                .excludePathPatterns("/api/productos/stream")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
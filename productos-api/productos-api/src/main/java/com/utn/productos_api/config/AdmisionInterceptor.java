@@ -0,0 +1,95 @@
+package com.utn.productos_api.config;
+
+import com.utn.productos_api.exception.SobrecargaException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Control de admisión: cada petición toma un lugar en el {@link LimiteConcurrencia} de su clase de
+ * endpoint y, si no hay lugar, se rechaza en el acto con 503 y {@code Retry-After}
+ * (ver {@link SobrecargaException}), en lugar de esperar hilos y conexiones junto con el resto.
+ *
+ * Clases: lecturas, escrituras (stock y demás modificaciones de un producto) y trabajos masivos
+ * (importación, ajuste masivo de stock, exportación y reconciliación de totales). La clase sale del
+ * método que atiende la petición: la de su {@link ClaseAdmision} o, sin anotación, lectura para GET y HEAD
+ * y escritura para el resto. Las lecturas tienen prioridad: los trabajos
+ * masivos se rechazan mientras la latencia de las lecturas está subiendo o mientras usan más de una
+ * fracción de su propio límite, así ceden CPU y conexiones antes de que las lecturas empiecen a rechazarse.
+ *
+ * En las respuestas asíncronas (exportación) el lugar se libera al terminar la respuesta completa,
+ * no al liberarse el hilo del contenedor.
+ */
+public class AdmisionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ATRIBUTO_PERMISO = AdmisionInterceptor.class.getName() + ".permiso";
+
+    private final LimiteConcurrencia lecturas;
+    private final LimiteConcurrencia escrituras;
+    private final LimiteConcurrencia masivos;
+    private final double margenLecturas;
+    private final Duration reintentarEn;
+
+    public AdmisionInterceptor(LimiteConcurrencia lecturas, LimiteConcurrencia escrituras, LimiteConcurrencia masivos,
+                               double margenLecturas, Duration reintentarEn) {
+        this.lecturas = lecturas;
+        this.escrituras = escrituras;
+        this.masivos = masivos;
+        this.margenLecturas = margenLecturas;
+        this.reintentarEn = reintentarEn;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // El despacho asíncrono continúa una petición que ya fue admitida
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        LimiteConcurrencia limite = clasificar(request, handler);
+        boolean cedeALecturas = limite == masivos
+                && (lecturas.isCongestionado() || lecturas.getEnCurso() >= lecturas.getLimite() * margenLecturas);
+        if (cedeALecturas || !limite.intentarAdquirir()) {
+            limite.registrarRechazo();
+            throw new SobrecargaException(limite.getClase(), reintentarEn);
+        }
+        request.setAttribute(ATRIBUTO_PERMISO, new Permiso(limite, System.nanoTime()));
+        return true;
+    }
+
+    private LimiteConcurrencia clasificar(HttpServletRequest request, Object handler) {
+        ClaseAdmision clase = handler instanceof HandlerMethod handlerMethod
+                ? handlerMethod.getMethodAnnotation(ClaseAdmision.class) : null;
+        if (clase != null) {
+            return switch (clase.value()) {
+                case LECTURA -> lecturas;
+                case ESCRITURA -> escrituras;
+                case MASIVO -> masivos;
+            };
+        }
+        String metodo = request.getMethod();
+        return "GET".equals(metodo) || "HEAD".equals(metodo) ? lecturas : escrituras;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // afterCompletion no se llama en el hilo que inició una respuesta asíncrona, sino al terminarla
+        Permiso permiso = (Permiso) request.getAttribute(ATRIBUTO_PERMISO);
+        if (permiso == null) {
+            return;
+        }
+        request.removeAttribute(ATRIBUTO_PERMISO);
+        if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            permiso.limite.liberarDescartada();
+        } else {
+            permiso.limite.liberar(System.nanoTime() - permiso.inicio);
+        }
+    }
+
+    private record Permiso(LimiteConcurrencia limite, long inicio) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.utn.productos_api.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Clase de admisión de un endpoint (ver {@link AdmisionInterceptor}). Sin esta anotación el endpoint
+ * es una lectura si se mapea a GET o HEAD y una escritura en cualquier otro caso; se anota cuando el
+ * método HTTP no refleja el costo, como una consulta por POST o un recálculo completo.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClaseAdmision {
+
+    Clase value();
+
+    enum Clase {
+        LECTURA,
+        ESCRITURA,
+        MASIVO
+    }
+}
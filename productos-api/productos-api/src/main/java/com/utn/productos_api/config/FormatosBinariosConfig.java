@@ -0,0 +1,40 @@
+package com.utn.productos_api.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Formatos binarios para los consumidores internos, elegidos por negociación de contenido
+ * (cabecera Accept / Content-Type): {@code application/cbor} y {@code application/x-jackson-smile}.
+ *
+ * Usan la misma configuración de Jackson que JSON, salvo que los enums (p. ej. Categoria)
+ * se escriben como su ordinal en lugar del nombre. Al leer se aceptan ambas formas.
+ */
+@Configuration
+public class FormatosBinariosConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(mapperBinario(builder, new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(mapperBinario(builder, new SmileFactory()));
+    }
+
+    static ObjectMapper mapperBinario(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder.createXmlMapper(false)
+                .factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .build();
+    }
+}
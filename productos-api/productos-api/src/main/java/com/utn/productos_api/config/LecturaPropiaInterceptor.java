@@ -0,0 +1,73 @@
+package com.utn.productos_api.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes: después de una modificación, las lecturas del mismo cliente van al primario
+ * durante una ventana corta, para no leer de una réplica que todavía no recibió el cambio.
+ *
+ * El cliente se reconoce por una cookie con el instante en que vence la ventana, que se emite en
+ * cada POST/PUT/PATCH/DELETE. No guarda estado en el servidor, así que funciona igual con varias instancias.
+ */
+public class LecturaPropiaInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COOKIE = "productos-escritura";
+
+    private static final Set<String> METODOS_ESCRITURA = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final Duration ventana;
+
+    public LecturaPropiaInterceptor(Duration ventana) {
+        this.ventana = ventana;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long ahora = System.currentTimeMillis();
+        if (METODOS_ESCRITURA.contains(request.getMethod())) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(ahora + ventana.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, ventana.toSeconds()));
+            response.addCookie(cookie);
+            RuteoLecturaDataSource.forzarPrimario(true);
+        } else if (vence(request) > ahora) {
+            RuteoLecturaDataSource.forzarPrimario(true);
+        }
+        return true;
+    }
+
+    private static long vence(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // El hilo del contenedor se libera; el resto de la respuesta se arma en otro hilo
+        RuteoLecturaDataSource.forzarPrimario(false);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RuteoLecturaDataSource.forzarPrimario(false);
+    }
+}
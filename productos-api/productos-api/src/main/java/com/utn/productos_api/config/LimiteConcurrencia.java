@@ -0,0 +1,158 @@
+package com.utn.productos_api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de peticiones concurrentes que se ajusta solo según la latencia observada (estilo gradiente/Vegas).
+ *
+ * Se mantienen dos promedios móviles de la latencia: uno corto, que sigue el estado actual, y uno
+ * largo, que hace de referencia "sin cola". El gradiente {@code tolerancia * largo / corto}, acotado
+ * entre 0,5 y 1, reduce el límite en cuanto la latencia reciente sube por encima de la referencia;
+ * a eso se le suma una cola fija que permite crecer mientras la latencia se mantiene. Con pocas
+ * peticiones en curso el límite no cambia: sin carga la latencia no dice nada sobre la capacidad.
+ *
+ * Una petición descartada aguas abajo (por ejemplo, sin conexiones en el pool) reduce el límite
+ * de inmediato, sin esperar a que se note en la latencia.
+ */
+public class LimiteConcurrencia {
+
+    private static final int VENTANA_CORTA = 10;
+    private static final int VENTANA_LARGA = 500;
+    private static final double TOLERANCIA = 1.5;
+    private static final double SUAVIZADO = 0.2;
+    private static final double FACTOR_DESCARTE = 0.9;
+
+    private final String clase;
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final int cola;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final Counter rechazos;
+    // ReentrantLock en lugar de synchronized: no fija el hilo virtual a su portador
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile double limite;
+    private volatile boolean congestionado;
+    private double rttCorto;
+    private double rttLargo;
+
+    public LimiteConcurrencia(String clase, int limiteInicial, int limiteMinimo, int limiteMaximo,
+                              MeterRegistry meterRegistry) {
+        this.clase = clase;
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.limite = Math.max(limiteMinimo, Math.min(limiteInicial, limiteMaximo));
+        this.cola = Math.max(1, (int) Math.sqrt(limiteInicial));
+        this.rechazos = Counter.builder("productos.admision.rechazos")
+                .description("Peticiones rechazadas por el control de admisión")
+                .tag("clase", clase)
+                .register(meterRegistry);
+        Gauge.builder("productos.admision.limite", this, LimiteConcurrencia::getLimite)
+                .description("Límite actual de peticiones concurrentes")
+                .tag("clase", clase)
+                .register(meterRegistry);
+        Gauge.builder("productos.admision.en-curso", enCurso, AtomicInteger::get)
+                .description("Peticiones admitidas en curso")
+                .tag("clase", clase)
+                .register(meterRegistry);
+    }
+
+    public String getClase() {
+        return clase;
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    /**
+     * Indica si la latencia reciente está por encima de la referencia, es decir, si el límite está bajando.
+     * Solo cuenta mientras hay peticiones en curso cerca del límite: el promedio corto no se mueve sin
+     * peticiones que terminen, y una lectura lenta aislada no debe frenar a las demás clases después.
+     */
+    public boolean isCongestionado() {
+        return congestionado && enCurso.get() >= limite / 2;
+    }
+
+    /**
+     * Toma un lugar si quedan por debajo del límite. Nunca espera.
+     *
+     * @return {@code true} si la petición fue admitida; en ese caso debe liberarse al terminar
+     */
+    public boolean intentarAdquirir() {
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= (int) limite) {
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Cuenta una petición de esta clase que no fue admitida.
+     */
+    public void registrarRechazo() {
+        rechazos.increment();
+    }
+
+    /**
+     * Libera el lugar de una petición terminada y ajusta el límite con su latencia.
+     */
+    public void liberar(long rttNanos) {
+        int enCursoAlTerminar = enCurso.getAndDecrement();
+        lock.lock();
+        try {
+            if (rttLargo == 0) {
+                rttCorto = rttNanos;
+                rttLargo = rttNanos;
+                return;
+            }
+            rttCorto += (rttNanos - rttCorto) / VENTANA_CORTA;
+            rttLargo += (rttNanos - rttLargo) / VENTANA_LARGA;
+            // Tras una sobrecarga larga la referencia quedó alta: se la baja rápido hacia el valor actual
+            if (rttLargo > 2 * rttCorto) {
+                rttLargo *= 0.95;
+            }
+            double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * rttLargo / rttCorto));
+            congestionado = gradiente < 1.0;
+            double actual = limite;
+            if (enCursoAlTerminar < actual / 2) {
+                return;
+            }
+            double nuevo = actual * gradiente + cola;
+            limite = acotar(actual * (1 - SUAVIZADO) + nuevo * SUAVIZADO);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el lugar de una petición que falló por falta de capacidad aguas abajo y reduce el límite.
+     */
+    public void liberarDescartada() {
+        enCurso.decrementAndGet();
+        lock.lock();
+        try {
+            limite = acotar(limite * FACTOR_DESCARTE);
+            congestionado = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double acotar(double valor) {
+        return Math.max(limiteMinimo, Math.min(valor, limiteMaximo));
+    }
+}
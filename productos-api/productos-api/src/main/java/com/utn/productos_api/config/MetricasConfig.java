@@ -0,0 +1,22 @@
+package com.utn.productos_api.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas propias de la aplicación. Los endpoints HTTP, el pool de conexiones y Hibernate
+ * se instrumentan con la autoconfiguración de Actuator; acá se agregan los timers de los
+ * métodos anotados con {@code @Timed} (ver ProductoService).
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "productos.metricas.servicio.enabled", matchIfMissing = true)
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
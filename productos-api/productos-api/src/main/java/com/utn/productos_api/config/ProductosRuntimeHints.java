@@ -0,0 +1,66 @@
+package com.utn.productos_api.config;
+
+import com.utn.productos_api.dto.ActualizarStockDTO;
+import com.utn.productos_api.dto.AgregadoCategoriaDTO;
+import com.utn.productos_api.dto.AjusteStockDTO;
+import com.utn.productos_api.dto.CambioProductoDTO;
+import com.utn.productos_api.dto.CambiosDTO;
+import com.utn.productos_api.dto.EstadisticasCacheDTO;
+import com.utn.productos_api.dto.EventoProductoDTO;
+import com.utn.productos_api.dto.PaginaDTO;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.dto.ReconciliacionAgregadosDTO;
+import com.utn.productos_api.dto.ResultadoBusquedaDTO;
+import com.utn.productos_api.dto.ResultadoFilaDTO;
+import com.utn.productos_api.dto.ResultadoImportacionDTO;
+import com.utn.productos_api.dto.ResultadoMultiGetDTO;
+import com.utn.productos_api.exception.ErrorResponse;
+import com.utn.productos_api.model.Producto;
+import com.utn.productos_api.model.ProductoEliminado;
+import com.utn.productos_api.repository.TotalesCategoria;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.DecoratingProxy;
+
+/**
+ * Hints de reflexión y proxies para la imagen nativa (y para el procesamiento AOT en general).
+ *
+ * Spring infiere los tipos de los parámetros y retornos de los controllers, pero no los que
+ * solo aparecen dentro de genéricos (PaginaDTO&lt;T&gt;), en eventos SSE o en JPQL
+ * ({@code select new ProductoResponseDTO(...)}), ni la proyección por interfaz TotalesCategoria.
+ */
+public class ProductosRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] TIPOS_SERIALIZADOS = {
+            ActualizarStockDTO.class, AgregadoCategoriaDTO.class, AjusteStockDTO.class, CambioProductoDTO.class,
+            CambiosDTO.class, EstadisticasCacheDTO.class, EventoProductoDTO.class, PaginaDTO.class,
+            ProductoDTO.class, ProductoResponseDTO.class, ReconciliacionAgregadosDTO.class,
+            ResultadoBusquedaDTO.class, ResultadoFilaDTO.class, ResultadoImportacionDTO.class,
+            ResultadoMultiGetDTO.class, ErrorResponse.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Getters/setters y constructores de los DTOs generados por Lombok, para Jackson
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), TIPOS_SERIALIZADOS);
+
+        // Expresión constructora de las consultas JPQL de ProductoRepository
+        hints.reflection().registerType(ProductoResponseDTO.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // Entidades: Hibernate accede a los campos y al constructor sin argumentos
+        for (Class<?> entidad : new Class<?>[]{Producto.class, ProductoEliminado.class}) {
+            hints.reflection().registerType(entidad, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        // Proyección por interfaz: Spring Data la implementa con un proxy JDK
+        hints.proxies().registerJdkProxy(TypeReference.of(TotalesCategoria.class), TypeReference.of(SpringProxy.class),
+                TypeReference.of(Advised.class), TypeReference.of(DecoratingProxy.class));
+    }
+}
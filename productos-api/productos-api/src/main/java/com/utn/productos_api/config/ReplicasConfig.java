@@ -0,0 +1,88 @@
+package com.utn.productos_api.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecturas desde réplicas: reemplaza el DataSource autoconfigurado por un
+ * {@link RuteoLecturaDataSource} (primario + réplicas) envuelto en un {@link LazyConnectionDataSourceProxy}.
+ *
+ * El primario se configura con las propiedades {@code spring.datasource.*} de siempre; cada réplica
+ * copia la configuración del pool del primario y cambia la URL. Se activa con el perfil {@code replicas}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "productos.replicas.enabled")
+public class ReplicasConfig implements WebMvcConfigurer {
+
+    private final Duration ventanaLecturaPropia;
+
+    public ReplicasConfig(@Value("${productos.replicas.ventana-lectura-propia:2s}") Duration ventanaLecturaPropia) {
+        this.ventanaLecturaPropia = ventanaLecturaPropia;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    public RuteoLecturaDataSource ruteoLecturaDataSource(HikariDataSource dataSourcePrimario,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${productos.replicas.urls}") List<String> urls,
+                                                         @Value("${productos.replicas.tamanio-pool:10}") int tamanioPool,
+                                                         @Value("${productos.replicas.timeout-conexion:1s}") Duration timeoutConexion) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            dataSourcePrimario.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setPoolName("replica-" + (i + 1));
+            config.setReadOnly(true);
+            config.setMaximumPoolSize(tamanioPool);
+            if (config.getMinimumIdle() > tamanioPool) {
+                config.setMinimumIdle(tamanioPool);
+            }
+            // Una réplica caída no debe demorar la petición ni impedir el arranque: se cae al primario
+            config.setConnectionTimeout(timeoutConexion.toMillis());
+            config.setInitializationFailTimeout(-1);
+            if (config.getMetricsTrackerFactory() == null) {
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+            replicas.add(new HikariDataSource(config));
+        }
+        return new RuteoLecturaDataSource(dataSourcePrimario, replicas, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RuteoLecturaDataSource ruteoLecturaDataSource) {
+        return new LazyConnectionDataSourceProxy(ruteoLecturaDataSource);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!ventanaLecturaPropia.isZero()) {
+            registry.addInterceptor(new LecturaPropiaInterceptor(ventanaLecturaPropia));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.utn.productos_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a las réplicas y todo lo demás al primario.
+ *
+ * Decide al pedir la conexión, según {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()};
+ * por eso tiene que usarse detrás de un {@code LazyConnectionDataSourceProxy}, que demora el pedido
+ * hasta la primera sentencia, cuando la transacción ya quedó marcada como de solo lectura.
+ *
+ * Las réplicas se eligen en round-robin entre las disponibles. Una réplica que no puede abrir conexiones
+ * queda fuera hasta que la verificación periódica la vuelva a encontrar sana; si tiene el pool agotado
+ * solo se pasa a la siguiente para esa lectura, sin darla de baja. Si no queda ninguna, se lee del primario. Un hilo puede forzar el primario (ver {@link #forzarPrimario(boolean)})
+ * para leer sus propias escrituras mientras las réplicas se ponen al día.
+ */
+@Slf4j
+public class RuteoLecturaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARIO_FORZADO = new ThreadLocal<>();
+
+    private final HikariDataSource primario;
+    private final List<Replica> replicas;
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private final Counter escrituras;
+    private final Counter lecturasPropias;
+    private final Counter respaldos;
+
+    public RuteoLecturaDataSource(HikariDataSource primario, List<HikariDataSource> replicas, MeterRegistry meterRegistry) {
+        this.primario = primario;
+        this.replicas = replicas.stream()
+                .map(ds -> new Replica(ds, contador(meterRegistry, ds.getPoolName(), "lectura")))
+                .toList();
+        this.escrituras = contador(meterRegistry, "primario", "escritura");
+        this.lecturasPropias = contador(meterRegistry, "primario", "lectura-propia");
+        this.respaldos = contador(meterRegistry, "primario", "respaldo");
+        Gauge.builder("productos.datasource.replicas.disponibles", this.replicas,
+                        r -> r.stream().filter(replica -> replica.disponible).count())
+                .description("Réplicas que reciben lecturas")
+                .register(meterRegistry);
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String destino, String motivo) {
+        return Counter.builder("productos.datasource.conexiones")
+                .description("Conexiones entregadas por destino y motivo")
+                .tag("destino", destino)
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fuerza (o deja de forzar) que las lecturas del hilo actual vayan al primario.
+     */
+    public static void forzarPrimario(boolean forzar) {
+        if (forzar) {
+            PRIMARIO_FORZADO.set(Boolean.TRUE);
+        } else {
+            PRIMARIO_FORZADO.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conectar(HikariDataSource::getConnection);
+    }
+
+    /**
+     * Pide la conexión con esas credenciales al destino elegido. Los pools de Hikari no las admiten
+     * (lanzan {@link SQLFeatureNotSupportedException}); eso no es una falla de la réplica y no la da de baja.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conectar(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection conectar(Apertura apertura) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            escrituras.increment();
+            return apertura.abrir(primario);
+        }
+        if (PRIMARIO_FORZADO.get() != null) {
+            lecturasPropias.increment();
+            return apertura.abrir(primario);
+        }
+        // Como mucho un intento por réplica: una con el pool agotado sigue disponible y podría volver a salir
+        Replica replica = elegirReplica();
+        for (int intentos = 0; replica != null && intentos < replicas.size(); intentos++) {
+            try {
+                Connection conexion = apertura.abrir(replica.dataSource);
+                replica.lecturas.increment();
+                return conexion;
+            } catch (SQLFeatureNotSupportedException e) {
+                throw e;
+            } catch (SQLException e) {
+                if (esCaida(e)) {
+                    replica.disponible = false;
+                    log.warn("Réplica {} fuera de servicio: {}", replica.dataSource.getPoolName(), e.getMessage());
+                } else {
+                    log.debug("Réplica {} sin conexiones libres: {}", replica.dataSource.getPoolName(), e.getMessage());
+                }
+                replica = elegirReplica();
+            }
+        }
+        respaldos.increment();
+        return apertura.abrir(primario);
+    }
+
+    /**
+     * Distingue una réplica caída de una saturada. Hikari informa las dos con una
+     * {@link SQLTransientConnectionException} al vencer el timeout, pero cuando no puede abrir conexiones
+     * adjunta como causa el último error del driver, que no es transitorio. Sin esa causa, o ante cualquier
+     * otro error transitorio, el pool está agotado y la réplica sigue sana.
+     */
+    private static boolean esCaida(SQLException e) {
+        if (e instanceof SQLTransientConnectionException && e.getCause() instanceof SQLException causa) {
+            return !(causa instanceof SQLTransientException);
+        }
+        return !(e instanceof SQLTransientException);
+    }
+
+    private Replica elegirReplica() {
+        int cantidad = replicas.size();
+        if (cantidad == 0) {
+            return null;
+        }
+        int inicio = Math.floorMod(siguiente.getAndIncrement(), cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Replica replica = replicas.get((inicio + i) % cantidad);
+            if (replica.disponible) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Verifica cada réplica con una conexión nueva del pool y actualiza su estado.
+     */
+    @Scheduled(fixedDelayString = "${productos.replicas.intervalo-verificacion:5000}")
+    public void verificarReplicas() {
+        for (Replica replica : replicas) {
+            boolean sana;
+            try (Connection conexion = replica.dataSource.getConnection()) {
+                sana = conexion.isValid(1);
+            } catch (SQLException e) {
+                sana = false;
+            }
+            if (sana != replica.disponible) {
+                log.info("Réplica {} {}", replica.dataSource.getPoolName(), sana ? "disponible" : "fuera de servicio");
+                replica.disponible = sana;
+            }
+        }
+    }
+
+    /**
+     * Cierra los pools de las réplicas; el del primario lo cierra su propio bean.
+     */
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    @FunctionalInterface
+    private interface Apertura {
+        Connection abrir(HikariDataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private final Counter lecturas;
+        private volatile boolean disponible = true;
+
+        private Replica(HikariDataSource dataSource, Counter lecturas) {
+            this.dataSource = dataSource;
+            this.lecturas = lecturas;
+        }
+    }
+}
@@ -1,19 +1,59 @@
 package com.utn.productos_api.controller;
 
+import com.utn.productos_api.config.ClaseAdmision;
 import com.utn.productos_api.dto.ActualizarStockDTO;
+import com.utn.productos_api.dto.AgregadoCategoriaDTO;
+import com.utn.productos_api.dto.AjusteStockDTO;
+import com.utn.productos_api.dto.AjusteStockMasivoDTO;
+import com.utn.productos_api.dto.BusquedaDTO;
+import com.utn.productos_api.dto.CambiosDTO;
+import com.utn.productos_api.dto.EstadisticasCacheDTO;
+import com.utn.productos_api.dto.PaginaDTO;
 import com.utn.productos_api.dto.ProductoDTO;
 import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.dto.ReconciliacionAgregadosDTO;
+import com.utn.productos_api.dto.ResultadoAjusteMasivoDTO;
+import com.utn.productos_api.dto.ResultadoImportacionDTO;
+import com.utn.productos_api.dto.ResultadoMultiGetDTO;
 import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.service.AjusteStockMasivoService;
+import com.utn.productos_api.service.CambiosService;
+import com.utn.productos_api.service.DifusorEventosProducto;
+import com.utn.productos_api.service.ImportacionService;
+import com.utn.productos_api.service.IndiceBusquedaProductos;
+import com.utn.productos_api.service.InventarioAgregados;
+import com.utn.productos_api.service.ProductoCache;
 import com.utn.productos_api.service.ProductoService;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -26,53 +66,284 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name="Prodcutos", description = "Endpoints para la gestion de productos")
 public class ProductoController {
 
+    private static final MediaType MEDIA_TYPE_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final List<MediaType> FORMATOS = List.of(MediaType.APPLICATION_JSON, MEDIA_TYPE_SMILE,
+            MediaType.APPLICATION_CBOR);
+
     private final ProductoService productoService;
+    private final ImportacionService importacionService;
+    private final AjusteStockMasivoService ajusteStockMasivoService;
+    private final ProductoCache productoCache;
+    private final InventarioAgregados inventarioAgregados;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final CambiosService cambiosService;
+    private final DifusorEventosProducto difusorEventos;
+    private final ObjectMapper objectMapper;
 
-    @Operation(summary = "Listar todos los productos", description = "Obtiene una lista completa de todos los productos disponibles en el sistema")
-    @ApiResponse(responseCode = "200", description = "Lista de productos obtenida exitosamente")
+    /**
+     * GET /api/productos?after={id}&limit={n}
+     * Lista los productos paginando por cursor (keyset) sobre el ID.
+     * Además de JSON responde en CBOR o Smile según la cabecera Accept (ver FormatosBinariosConfig).
+     *
+     * @param after ID a partir del cual continuar (exclusivo)
+     * @param cursor Token opaco de continuación devuelto por la página anterior
+     * @param limit Cantidad máxima de productos por página
+     * @return Página de productos con código 200 OK
+     */
+    @Operation(summary = "Listar productos paginados", description = "Obtiene una página de productos ordenados por ID usando paginación por cursor (keyset)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de productos obtenida exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor de paginación inválido")
+    })
     @GetMapping
-    public ResponseEntity<List<ProductoResponseDTO>> listarTodos() {
-        List<ProductoResponseDTO> productos = productoService.obtenerTodos();
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<PaginaDTO<ProductoResponseDTO>> listarTodos(
+            @Parameter(description = "ID a partir del cual continuar (exclusivo)", example = "0")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Token opaco de continuación devuelto por la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad máxima de productos por página (máximo 500)", example = "50")
+            @RequestParam(defaultValue = "" + ProductoService.LIMITE_PAGINA_POR_DEFECTO) int limit) {
+        PaginaDTO<ProductoResponseDTO> pagina = productoService.obtenerPagina(after, cursor, limit);
+        return ResponseEntity.ok(pagina);
+    }
+
+    /**
+     * GET /api/productos?ids=1,2,3
+     * Obtiene varios productos por ID en una sola petición y una sola consulta.
+     * Los IDs inexistentes se informan aparte en lugar de devolver 404.
+     *
+     * @param ids IDs a buscar, separados por coma
+     * @return Productos encontrados y IDs faltantes con código 200 OK
+     */
+    @Operation(summary = "Obtener varios productos por ID", description = "Busca varios productos por ID en una sola consulta e informa los IDs que no existen")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Se pidieron más IDs que el máximo permitido")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<ResultadoMultiGetDTO> obtenerVarios(
+            @Parameter(description = "IDs de los productos, separados por coma (máximo 500)", required = true, example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productoService.obtenerVarios(ids));
+    }
+
+    /**
+     * POST /api/productos/multi
+     * Variante de la búsqueda de varios productos con los IDs en el cuerpo,
+     * útil cuando la lista no entra cómodamente en la URL.
+     *
+     * @param ids IDs a buscar
+     * @return Productos encontrados y IDs faltantes con código 200 OK
+     */
+    @Operation(summary = "Obtener varios productos por ID (POST)", description = "Igual que GET /api/productos?ids=..., con la lista de IDs en el cuerpo")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Se pidieron más IDs que el máximo permitido")
+    })
+    @PostMapping("/multi")
+    @ClaseAdmision(ClaseAdmision.Clase.LECTURA)
+    public ResponseEntity<ResultadoMultiGetDTO> obtenerVariosPost(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "IDs de los productos", required = true)
+            @RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productoService.obtenerVarios(ids));
+    }
+
+    /**
+     * GET /api/productos/export
+     * Exporta el catálogo completo como NDJSON (un producto JSON por línea).
+     * La respuesta se escribe a medida que se leen las filas, con memoria constante.
+     *
+     * @return Flujo NDJSON con todos los productos ordenados por ID
+     */
+    @Operation(summary = "Exportar catálogo completo", description = "Exporta todos los productos en formato NDJSON leyendo la base de datos con un cursor")
+    @ApiResponse(responseCode = "200", description = "Exportación iniciada exitosamente")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ClaseAdmision(ClaseAdmision.Clase.MASIVO)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                // Cada producto termina en salto de línea, sin separador entre valores raíz
+                generador.setRootValueSeparator(null);
+                productoService.exportarCatalogo(producto -> {
+                    try {
+                        objectMapper.writeValue(generador, producto);
+                        generador.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
     }
 
     /**
      * GET /api/productos/{id}
      * Obtiene un producto específico por su ID.
+     * La respuesta lleva un ETag con la versión del producto; con If-None-Match y la versión
+     * vigente se responde 304 sin cargar ni serializar el producto.
      *
      * @param id Identificador del producto (capturado de la URL)
-     * @return Producto encontrado con código 200 OK, o 404 NOT FOUND si no existe
+     * @return Producto encontrado con código 200 OK, 304 NOT MODIFIED si no cambió, o 404 NOT FOUND si no existe
      */
     @Operation(summary = "Obtener producto por ID", description = "Busca y retorna un producto específico utilizando su identificador único")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto encontrado exitosamente"),
+            @ApiResponse(responseCode = "304", description = "El producto no cambió desde el ETag enviado en If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado")
     })
     @GetMapping("/{id}")
     public ResponseEntity<ProductoResponseDTO> obtenerPorId(
             @Parameter(description = "ID único del producto", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest webRequest) {
+        // La versión se toma antes que los datos: si cambian en el medio, el ETag queda viejo y no al revés
+        String version = productoService.versionProducto(id);
+        String etag = version != null ? etag(version, webRequest) : null;
+        if (etag != null && noModificado(etag, webRequest)) {
+            return null;
+        }
         ProductoResponseDTO producto = productoService.obtenerPorId(id);
-        return ResponseEntity.ok(producto);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(producto);
     }
 
     /**
-     * GET /api/productos/categoria/{categoria}
-     * Filtra productos por categoría.
+     * GET /api/productos/categoria/{categoria}?after={id}&limit={n}
+     * Filtra productos por categoría, paginando por cursor (keyset).
+     * Además de JSON responde en CBOR o Smile según la cabecera Accept (ver FormatosBinariosConfig).
      *
      * @param categoria Categoría a filtrar (ELECTRONICA, ROPA, etc.)
-     * @return Lista de productos de la categoría con código 200 OK
+     * @param after ID a partir del cual continuar (exclusivo)
+     * @param cursor Token opaco de continuación devuelto por la página anterior
+     * @param limit Cantidad máxima de productos por página
+     * @return Página de productos de la categoría con código 200 OK, o 304 NOT MODIFIED si la categoría no cambió
      */
-    @Operation(summary = "Filtrar productos por categoría", description = "Obtiene todos los productos que pertenecen a una categoría específica")
-    @ApiResponse(responseCode = "200", description = "Lista de productos filtrada exitosamente")
+    @Operation(summary = "Filtrar productos por categoría", description = "Obtiene una página de productos que pertenecen a una categoría específica usando paginación por cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de productos filtrada exitosamente"),
+            @ApiResponse(responseCode = "304", description = "La categoría no cambió desde el ETag enviado en If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Cursor de paginación inválido")
+    })
     @GetMapping("/categoria/{categoria}")
-    public ResponseEntity<List<ProductoResponseDTO>> filtrarPorCategoria(
+    public ResponseEntity<PaginaDTO<ProductoResponseDTO>> filtrarPorCategoria(
             @Parameter(description = "Categoría del producto (ELECTRONICA, ROPA, ALIMENTOS, HOGAR, DEPORTES)", required = true)
-            @PathVariable Categoria categoria) {
-        List<ProductoResponseDTO> productos = productoService.obtenerPorCategoria(categoria);
+            @PathVariable Categoria categoria,
+            @Parameter(description = "ID a partir del cual continuar (exclusivo)", example = "0")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Token opaco de continuación devuelto por la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad máxima de productos por página (máximo 500)", example = "50")
+            @RequestParam(defaultValue = "" + ProductoService.LIMITE_PAGINA_POR_DEFECTO) int limit,
+            WebRequest webRequest) {
+        // El ETag depende solo de la versión de la categoría: cada página es un recurso distinto (su URL)
+        String etag = etag(productoService.versionCategoria(categoria), webRequest);
+        if (noModificado(etag, webRequest)) {
+            return null;
+        }
+        PaginaDTO<ProductoResponseDTO> pagina =
+                productoService.obtenerPaginaPorCategoria(categoria, after, cursor, limit);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(pagina);
+    }
+
+    /**
+     * GET /api/productos/filtrar?categoria=&minPrecio=&maxPrecio=&maxStock=&nombre=&sort=precio,desc&limit=
+     * Filtra y ordena productos combinando criterios opcionales, resueltos en una sola consulta.
+     *
+     * @param categoria Categoría exacta
+     * @param minPrecio Precio mínimo (inclusive)
+     * @param maxPrecio Precio máximo (inclusive)
+     * @param maxStock Stock máximo (inclusive)
+     * @param nombre Texto contenido en el nombre
+     * @param sort Orden, por ejemplo sort=precio,desc (id, nombre, precio o stock)
+     * @param limit Cantidad máxima de productos a devolver
+     * @return Lista de productos que cumplen los criterios con código 200 OK
+     */
+    @Operation(summary = "Filtrar y ordenar productos", description = "Combina filtros por categoría, rango de precio, stock máximo y nombre, con orden y límite")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de productos filtrada exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Orden o rango de precios inválido")
+    })
+    @GetMapping("/filtrar")
+    public ResponseEntity<List<ProductoResponseDTO>> filtrar(
+            @Parameter(description = "Categoría del producto")
+            @RequestParam(required = false) Categoria categoria,
+            @Parameter(description = "Precio mínimo (inclusive)", example = "10")
+            @RequestParam(required = false) Double minPrecio,
+            @Parameter(description = "Precio máximo (inclusive)", example = "100")
+            @RequestParam(required = false) Double maxPrecio,
+            @Parameter(description = "Stock máximo (inclusive)", example = "5")
+            @RequestParam(required = false) Integer maxStock,
+            @Parameter(description = "Texto contenido en el nombre")
+            @RequestParam(required = false) String nombre,
+            @Parameter(description = "Orden: campo,dirección (id, nombre, precio o stock)", example = "precio,desc")
+            Sort sort,
+            @Parameter(description = "Cantidad máxima de productos (máximo 500)", example = "50")
+            @RequestParam(defaultValue = "" + ProductoService.LIMITE_PAGINA_POR_DEFECTO) int limit) {
+        List<ProductoResponseDTO> productos =
+                productoService.filtrar(categoria, minPrecio, maxPrecio, maxStock, nombre, sort, limit);
         return ResponseEntity.ok(productos);
     }
 
+    /**
+     * GET /api/productos/buscar?q=texto&categoria=&limit=
+     * Busca productos por texto en el nombre y la descripción usando un índice en memoria.
+     * Ignora mayúsculas y acentos, y el último término se toma como prefijo (búsqueda mientras se escribe).
+     *
+     * @param q Texto a buscar
+     * @param categoria Categoría a la que restringir los resultados
+     * @param limit Cantidad máxima de resultados
+     * @return Resultados ordenados por relevancia, y si el prefijo abarcaba demasiados términos, con código 200 OK
+     */
+    @Operation(summary = "Buscar productos por texto", description = "Búsqueda por nombre y descripción con índice invertido en memoria; admite prefijos y filtro por categoría")
+    @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente")
+    @GetMapping("/buscar")
+    public ResponseEntity<BusquedaDTO> buscar(
+            @Parameter(description = "Texto a buscar", required = true, example = "zapat")
+            @RequestParam String q,
+            @Parameter(description = "Categoría del producto")
+            @RequestParam(required = false) Categoria categoria,
+            @Parameter(description = "Cantidad máxima de resultados (máximo 100)", example = "10")
+            @RequestParam(defaultValue = "" + IndiceBusquedaProductos.LIMITE_POR_DEFECTO) int limit) {
+        return ResponseEntity.ok(indiceBusqueda.buscar(q, categoria, limit));
+    }
+
+    /**
+     * GET /api/productos/changes?since={version}&limit={n}
+     * Feed de cambios: productos creados, modificados o eliminados después de una versión.
+     * Las réplicas guardan 'ultimaVersion' y la envían como 'since' en la siguiente llamada.
+     *
+     * @param since Última versión ya procesada (0 para recorrer todo el historial)
+     * @param limit Cantidad máxima de cambios a devolver
+     * @return Cambios en orden de versión con código 200 OK
+     */
+    @Operation(summary = "Feed de cambios del catálogo", description = "Obtiene los productos creados, modificados o eliminados desde una versión, en orden de versión")
+    @ApiResponse(responseCode = "200", description = "Cambios obtenidos exitosamente")
+    @GetMapping("/changes")
+    public ResponseEntity<CambiosDTO> cambios(
+            @Parameter(description = "Última versión ya procesada por el cliente", example = "0")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Cantidad máxima de cambios (máximo 500)", example = "100")
+            @RequestParam(defaultValue = "" + ProductoService.LIMITE_PAGINA_POR_DEFECTO) int limit) {
+        return ResponseEntity.ok(cambiosService.obtenerCambios(since, limit));
+    }
+
+    /**
+     * GET /api/productos/stream?categoria=
+     * Stream de Server-Sent Events con los cambios de stock y precio y las eliminaciones,
+     * enviados solo después de que cada cambio se confirma.
+     *
+     * @param categoria Categoría a la que restringir los eventos
+     * @return Emisor SSE que permanece abierto hasta el timeout o la desconexión del cliente
+     */
+    @Operation(summary = "Stream de cambios de productos", description = "Envía por Server-Sent Events los cambios de stock y precio y las eliminaciones confirmadas")
+    @ApiResponse(responseCode = "200", description = "Stream abierto exitosamente")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @Parameter(description = "Categoría del producto")
+            @RequestParam(required = false) Categoria categoria) {
+        return difusorEventos.suscribir(categoria);
+    }
+
     /**
      * POST /api/productos
      * Crea un nuevo producto.
@@ -93,6 +364,41 @@ public class ProductoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(productoCreado);
     }
 
+    /**
+     * POST /api/productos/bulk
+     * Importa muchos productos en una sola petición, con inserciones en lotes JDBC.
+     * Cada fila se valida por separado y el resultado indica qué filas fueron creadas.
+     *
+     * @param productos Lista de productos a crear
+     * @return Resumen de la importación con el resultado de cada fila
+     */
+    @Operation(summary = "Importación masiva de productos", description = "Crea muchos productos en una sola petición, validando cada fila e insertando en lotes")
+    @ApiResponse(responseCode = "200", description = "Importación procesada; ver el resultado de cada fila")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ClaseAdmision(ClaseAdmision.Clase.MASIVO)
+    public ResponseEntity<ResultadoImportacionDTO> importar(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Productos a crear", required = true)
+            @RequestBody List<ProductoDTO> productos) {
+        return ResponseEntity.ok(importacionService.importar(productos.iterator()));
+    }
+
+    /**
+     * POST /api/productos/bulk (application/x-ndjson)
+     * Igual que la importación masiva, pero leyendo un producto JSON por línea a medida que llega,
+     * sin cargar todo el cuerpo en memoria.
+     *
+     * @param cuerpo Cuerpo NDJSON de la petición
+     * @return Resumen de la importación con el resultado de cada fila
+     */
+    @Operation(summary = "Importación masiva de productos (NDJSON)", description = "Crea productos leyendo un flujo NDJSON, validando cada fila e insertando en lotes")
+    @ApiResponse(responseCode = "200", description = "Importación procesada; ver el resultado de cada fila, incluidas las líneas mal formadas")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ClaseAdmision(ClaseAdmision.Clase.MASIVO)
+    public ResponseEntity<ResultadoImportacionDTO> importarNdjson(InputStream cuerpo) throws IOException {
+        BufferedReader lineas = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8));
+        return ResponseEntity.ok(importacionService.importarNdjson(lineas));
+    }
+
     /**
      * PUT /api/productos/{id}
      * Actualiza completamente un producto existente.
@@ -100,21 +406,26 @@ public class ProductoController {
      *
      * @param id ID del producto a actualizar
      * @param productoDTO Nuevos datos del producto (validados)
-     * @return Producto actualizado con código 200 OK, o 404 si no existe
+     * @param ifMatch ETag(s) de la versión sobre la que se hizo el cambio, opcional
+     * @return Producto actualizado con código 200 OK, 404 si no existe, o 412 si cambió desde el ETag enviado
      */
     @Operation(summary = "Actualizar producto completo", description = "Actualiza todos los campos de un producto existente (operación PUT)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto actualizado exitosamente"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
-            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
+            @ApiResponse(responseCode = "412", description = "El producto cambió desde el ETag enviado en If-Match")
     })
     @PutMapping("/{id}")
     public ResponseEntity<ProductoResponseDTO> actualizar(
             @Parameter(description = "ID del producto a actualizar", required = true, example = "1")
             @PathVariable Long id,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Nuevos datos del producto", required = true)
-            @Valid @RequestBody ProductoDTO productoDTO) {
-        ProductoResponseDTO productoActualizado = productoService.actualizarProducto(id, productoDTO);
+            @Valid @RequestBody ProductoDTO productoDTO,
+            @Parameter(description = "ETag obtenido al leer el producto; si ya no es el vigente se responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductoResponseDTO productoActualizado =
+                productoService.actualizarProducto(id, productoDTO, versionesEsperadas(ifMatch));
         return ResponseEntity.ok(productoActualizado);
     }
 
@@ -125,25 +436,95 @@ public class ProductoController {
      *
      * @param id ID del producto
      * @param stockDTO Nuevo valor de stock (validado)
-     * @return Producto con stock actualizado con código 200 OK
+     * @param ifMatch ETag(s) de la versión sobre la que se hizo el cambio, opcional
+     * @return Producto con stock actualizado con código 200 OK, o 412 si cambió desde el ETag enviado
      */
     @Operation(summary = "Actualizar stock del producto", description = "Actualiza únicamente el stock de un producto (operación PATCH)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Stock actualizado exitosamente"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
-            @ApiResponse(responseCode = "400", description = "Valor de stock inválido")
+            @ApiResponse(responseCode = "400", description = "Valor de stock inválido"),
+            @ApiResponse(responseCode = "412", description = "El producto cambió desde el ETag enviado en If-Match")
     })
     @PatchMapping("/{id}/stock")
     public ResponseEntity<ProductoResponseDTO> actualizarStock(
             @Parameter(description = "ID del producto", required = true, example = "1")
             @PathVariable Long id,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Nuevo valor de stock", required = true)
-            @Valid @RequestBody ActualizarStockDTO stockDTO) {
+            @Valid @RequestBody ActualizarStockDTO stockDTO,
+            @Parameter(description = "ETag obtenido al leer el producto; si ya no es el vigente se responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         ProductoResponseDTO productoActualizado =
-                productoService.actualizarStock(id, stockDTO.getStock());
+                productoService.actualizarStock(id, stockDTO.getStock(), versionesEsperadas(ifMatch));
         return ResponseEntity.ok(productoActualizado);
     }
 
+    /**
+     * POST /api/productos/{id}/stock/decrementar
+     * Descuenta (reserva) stock de forma atómica, sin leer y reescribir el producto.
+     * Es seguro ante peticiones concurrentes sobre el mismo producto.
+     *
+     * @param id ID del producto
+     * @param ajusteDTO Cantidad de unidades a descontar
+     * @return Producto con stock actualizado con código 200 OK
+     */
+    @Operation(summary = "Descontar stock", description = "Reserva unidades descontándolas del stock de forma atómica; falla si el stock no alcanza")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock descontado exitosamente"),
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+            @ApiResponse(responseCode = "400", description = "Cantidad inválida o stock insuficiente")
+    })
+    @PostMapping("/{id}/stock/decrementar")
+    public ResponseEntity<ProductoResponseDTO> decrementarStock(
+            @Parameter(description = "ID del producto", required = true, example = "1")
+            @PathVariable Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Unidades a descontar", required = true)
+            @Valid @RequestBody AjusteStockDTO ajusteDTO) {
+        return ResponseEntity.ok(productoService.decrementarStock(id, ajusteDTO.getCantidad()));
+    }
+
+    /**
+     * POST /api/productos/{id}/stock/incrementar
+     * Suma stock de forma atómica (por ejemplo, al liberar una reserva o recibir mercadería).
+     *
+     * @param id ID del producto
+     * @param ajusteDTO Cantidad de unidades a sumar
+     * @return Producto con stock actualizado con código 200 OK
+     */
+    @Operation(summary = "Incrementar stock", description = "Suma unidades al stock de forma atómica")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock incrementado exitosamente"),
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+            @ApiResponse(responseCode = "400", description = "Cantidad inválida")
+    })
+    @PostMapping("/{id}/stock/incrementar")
+    public ResponseEntity<ProductoResponseDTO> incrementarStock(
+            @Parameter(description = "ID del producto", required = true, example = "1")
+            @PathVariable Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Unidades a sumar", required = true)
+            @Valid @RequestBody AjusteStockDTO ajusteDTO) {
+        return ResponseEntity.ok(productoService.incrementarStock(id, ajusteDTO.getCantidad()));
+    }
+
+    /**
+     * POST /api/productos/stock/bulk
+     * Aplica muchos ajustes de stock en una sola petición (conciliación de depósito).
+     * Cada ajuste fija un stock absoluto o suma un delta; los que no pueden aplicarse
+     * (producto inexistente, stock insuficiente) se informan sin afectar al resto.
+     *
+     * @param ajustes Lista de ajustes a aplicar
+     * @return Resumen con el resultado de cada ajuste
+     */
+    @Operation(summary = "Ajuste masivo de stock", description = "Aplica muchos ajustes de stock (valor absoluto o delta) en transacciones por lotes")
+    @ApiResponse(responseCode = "200", description = "Ajustes procesados; ver el resultado de cada ajuste")
+    @PostMapping(value = "/stock/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ClaseAdmision(ClaseAdmision.Clase.MASIVO)
+    public ResponseEntity<ResultadoAjusteMasivoDTO> ajustarStock(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Ajustes de stock", required = true)
+            @RequestBody List<AjusteStockMasivoDTO> ajustes) {
+        return ResponseEntity.ok(ajusteStockMasivoService.ajustar(ajustes));
+    }
+
     /**
      * DELETE /api/productos/{id}
      * Elimina un producto del sistema.
@@ -168,6 +549,141 @@ public class ProductoController {
         return ResponseEntity.noContent().build();
     }
 
-}
+    /**
+     * GET /api/productos/cache/estadisticas
+     * Devuelve aciertos, fallos y desalojos de las caches de lectura.
+     *
+     * @return Estadísticas de cada cache con código 200 OK
+     */
+    @Operation(summary = "Estadísticas de cache", description = "Obtiene aciertos, fallos y desalojos de las caches de lectura de productos")
+    @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente")
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<Map<String, EstadisticasCacheDTO>> estadisticasCache() {
+        return ResponseEntity.ok(productoCache.estadisticas());
+    }
 
+    /**
+     * GET /api/productos/agregados
+     * Devuelve los totales de inventario por categoría, mantenidos en memoria.
+     *
+     * @return Cantidad de productos, unidades y valor del stock de cada categoría
+     */
+    @Operation(summary = "Totales de inventario por categoría", description = "Obtiene productos, unidades y valor del stock (precio * stock) de cada categoría sin consultar la base de datos")
+    @ApiResponse(responseCode = "200", description = "Totales obtenidos exitosamente")
+    @GetMapping("/agregados")
+    public ResponseEntity<List<AgregadoCategoriaDTO>> agregados() {
+        return ResponseEntity.ok(inventarioAgregados.obtenerTodos());
+    }
+
+    /**
+     * POST /api/productos/agregados/reconciliacion
+     * Compara los totales en memoria con la base de datos e informa la deriva.
+     *
+     * @return Reporte de reconciliación
+     */
+    @Operation(summary = "Reconciliar totales de inventario", description = "Recalcula los totales en la base de datos y los compara con los mantenidos en memoria")
+    @ApiResponse(responseCode = "200", description = "Reconciliación realizada exitosamente")
+    @PostMapping("/agregados/reconciliacion")
+    @ClaseAdmision(ClaseAdmision.Clase.MASIVO)
+    public ResponseEntity<ReconciliacionAgregadosDTO> reconciliarAgregados() {
+        return ResponseEntity.ok(inventarioAgregados.reconciliar());
+    }
 
+    /**
+     * GET /api/productos/agregados/reconciliacion
+     * Devuelve el resultado de la última reconciliación de totales.
+     *
+     * @return Último reporte, o 204 NO CONTENT si todavía no se ejecutó ninguna
+     */
+    @Operation(summary = "Última reconciliación de totales", description = "Obtiene el resultado de la última reconciliación periódica de los totales de inventario")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reporte obtenido exitosamente"),
+            @ApiResponse(responseCode = "204", description = "Todavía no se ejecutó ninguna reconciliación")
+    })
+    @GetMapping("/agregados/reconciliacion")
+    public ResponseEntity<ReconciliacionAgregadosDTO> ultimaReconciliacion() {
+        ReconciliacionAgregadosDTO reporte = inventarioAgregados.getUltimaReconciliacion();
+        return reporte != null ? ResponseEntity.ok(reporte) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * ETag fuerte a partir de una versión. Cada formato (JSON, CBOR, Smile) es una representación
+     * distinta con sus propios bytes, así que lleva su propio sufijo.
+     */
+    private static String etag(String version, WebRequest webRequest) {
+        return "\"" + version + sufijoFormato(webRequest.getHeader(HttpHeaders.ACCEPT)) + "\"";
+    }
+
+    /**
+     * Como {@link WebRequest#checkNotModified(String)}, pero el 304 declara también {@code Vary: Accept},
+     * igual que el 200: el ETag depende del formato y un cache compartido tiene que guardarlos por separado.
+     */
+    private static boolean noModificado(String etag, WebRequest webRequest) {
+        if (!webRequest.checkNotModified(etag)) {
+            return false;
+        }
+        if (webRequest instanceof NativeWebRequest nativa
+                && nativa.getNativeResponse(HttpServletResponse.class) instanceof HttpServletResponse response) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return true;
+    }
+
+    /**
+     * Replica la negociación de contenido de Spring MVC para elegir el sufijo del ETag: por cada tipo aceptado
+     * y cada formato compatible que se sabe producir, un candidato con la calidad del aceptado; se ordenan
+     * por calidad y especificidad y gana el primero. Los formatos van en el orden de los conversores
+     * (JSON, Smile, CBOR), que es el que desempata cuando el cliente acepta varios por igual.
+     */
+    private static String sufijoFormato(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        try {
+            List<MediaType> candidatos = new ArrayList<>();
+            for (MediaType aceptado : MediaType.parseMediaTypes(accept)) {
+                for (MediaType formato : FORMATOS) {
+                    if (aceptado.isCompatibleWith(formato) && aceptado.getQualityValue() > 0) {
+                        candidatos.add(formato.copyQualityValue(aceptado));
+                    }
+                }
+            }
+            MimeTypeUtils.sortBySpecificity(candidatos);
+            if (!candidatos.isEmpty()) {
+                MediaType elegido = candidatos.get(0);
+                if (elegido.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                    return ".cbor";
+                }
+                if (elegido.isCompatibleWith(MEDIA_TYPE_SMILE)) {
+                    return ".smile";
+                }
+            }
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            // Una cabecera Accept inválida (o con demasiados tipos) termina en error al negociar; el ETag no importa
+        }
+        return "";
+    }
+
+    /**
+     * Versiones aceptadas por una cabecera If-Match, sin comillas ni sufijo de formato.
+     * Devuelve {@code null} si no hay condición ({@code *} equivale a "el producto existe", que ya se verifica).
+     * If-Match usa comparación fuerte, así que los ETag débiles ({@code W/}) nunca coinciden.
+     */
+    private static List<String> versionesEsperadas(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<String> versiones = new ArrayList<>();
+        for (String etag : ifMatch.split(",")) {
+            String valor = etag.trim();
+            if (valor.length() < 2 || !valor.startsWith("\"") || !valor.endsWith("\"")) {
+                continue;
+            }
+            valor = valor.substring(1, valor.length() - 1);
+            int sufijo = valor.indexOf('.');
+            versiones.add(sufijo >= 0 ? valor.substring(0, sufijo) : valor);
+        }
+        return versiones;
+    }
+
+}
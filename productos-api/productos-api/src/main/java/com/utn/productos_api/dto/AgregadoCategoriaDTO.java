@@ -0,0 +1,24 @@
+package com.utn.productos_api.dto;
+
+import com.utn.productos_api.model.Categoria;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Totales de inventario de una categoría.")
+public class AgregadoCategoriaDTO {
+    private Categoria categoria;
+
+    @Schema(description = "Cantidad de productos de la categoría.")
+    private long productos;
+
+    @Schema(description = "Unidades totales en stock.")
+    private long unidades;
+
+    @Schema(description = "Valor total del stock (precio * stock).")
+    private double valorStock;
+}
@@ -0,0 +1,21 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Ajuste de stock de un producto dentro de un ajuste masivo. Se indica 'stock' o 'delta', no ambos.")
+public class AjusteStockMasivoDTO {
+    @Schema(description = "ID del producto.", example = "1")
+    private Long id;
+
+    @Schema(description = "Nuevo valor absoluto de stock.", example = "25")
+    private Integer stock;
+
+    @Schema(description = "Unidades a sumar (positivo) o descontar (negativo).", example = "-3")
+    private Integer delta;
+}
@@ -0,0 +1,21 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de una búsqueda de texto.")
+public class BusquedaDTO {
+    @Schema(description = "Productos encontrados, ordenados por relevancia y luego por ID.")
+    private List<ResultadoBusquedaDTO> resultados;
+
+    @Schema(description = "Indica si el último término, tomado como prefijo, abarcaba más términos de los que se "
+            + "expanden; en ese caso pueden faltar resultados y conviene escribir más letras.")
+    private boolean truncada;
+}
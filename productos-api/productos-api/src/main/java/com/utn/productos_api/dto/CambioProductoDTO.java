@@ -0,0 +1,38 @@
+package com.utn.productos_api.dto;
+
+import com.utn.productos_api.model.Categoria;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cambio de un producto dentro del feed de cambios.")
+public class CambioProductoDTO {
+
+    public enum Tipo {
+        MODIFICADO,
+        ELIMINADO
+    }
+
+    @Schema(description = "MODIFICADO si el producto fue creado o actualizado, ELIMINADO si fue borrado.")
+    private Tipo tipo;
+
+    private Long id;
+
+    @Schema(description = "Versión de cambio asignada a la mutación.")
+    private long version;
+
+    @Schema(description = "Estado actual del producto. Nulo cuando fue eliminado.")
+    private ProductoResponseDTO producto;
+
+    /**
+     * Cambio MODIFICADO armado con las columnas del producto; lo usa la proyección JPQL del feed.
+     */
+    public CambioProductoDTO(Long id, long version, String nombre, String descripcion, double precio, int stock,
+                             Categoria categoria) {
+        this(Tipo.MODIFICADO, id, version, new ProductoResponseDTO(id, nombre, descripcion, precio, stock, categoria));
+    }
+}
@@ -0,0 +1,23 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página del feed de cambios del catálogo.")
+public class CambiosDTO {
+    @Schema(description = "Cambios en orden de versión creciente.")
+    private List<CambioProductoDTO> cambios;
+
+    @Schema(description = "Versión a usar como 'since' en la próxima llamada.")
+    private long ultimaVersion;
+
+    @Schema(description = "Indica si hay más cambios disponibles después de esta página.")
+    private boolean hayMas;
+}
@@ -0,0 +1,18 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Estadísticas de uso de una cache de lectura.")
+public class EstadisticasCacheDTO {
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private double tasaAciertos;
+    private long tamanio;
+}
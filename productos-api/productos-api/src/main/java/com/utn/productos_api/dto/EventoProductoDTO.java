@@ -0,0 +1,29 @@
+package com.utn.productos_api.dto;
+
+import com.utn.productos_api.model.Categoria;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Evento enviado por el stream de cambios de productos (Server-Sent Events).")
+public class EventoProductoDTO {
+
+    public enum Tipo {
+        ACTUALIZADO,
+        ELIMINADO
+    }
+
+    private Tipo tipo;
+    private Long id;
+    private Categoria categoria;
+
+    @Schema(description = "Precio actual. Nulo cuando el producto fue eliminado.")
+    private Double precio;
+
+    @Schema(description = "Stock actual. Nulo cuando el producto fue eliminado.")
+    private Integer stock;
+}
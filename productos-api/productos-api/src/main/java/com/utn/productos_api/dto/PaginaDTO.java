@@ -0,0 +1,26 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de resultados obtenida con paginación por cursor (keyset).")
+public class PaginaDTO<T> {
+    @Schema(description = "Elementos de la página, ordenados por ID ascendente.")
+    private List<T> contenido;
+
+    @Schema(description = "ID del último elemento de la página. Se puede usar como valor de 'after'.")
+    private Long ultimoId;
+
+    @Schema(description = "Token opaco para pedir la página siguiente (parámetro 'cursor'). Nulo si no hay más.")
+    private String siguienteCursor;
+
+    @Schema(description = "Indica si existen más elementos después de esta página.")
+    private boolean hayMas;
+}
@@ -0,0 +1,23 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de comparar los agregados en memoria con la base de datos.")
+public class ReconciliacionAgregadosDTO {
+    private LocalDateTime fecha;
+
+    @Schema(description = "Indica si los agregados en memoria coinciden con la base de datos.")
+    private boolean consistente;
+
+    @Schema(description = "Diferencia (base de datos menos memoria) de cada categoría con deriva.")
+    private List<AgregadoCategoriaDTO> derivas;
+}
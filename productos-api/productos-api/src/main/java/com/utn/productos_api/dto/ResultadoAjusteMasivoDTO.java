@@ -0,0 +1,26 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resumen de un ajuste masivo de stock.")
+public class ResultadoAjusteMasivoDTO {
+    @Schema(description = "Cantidad de ajustes recibidos.")
+    private int total;
+
+    @Schema(description = "Cantidad de ajustes aplicados.")
+    private int aplicados;
+
+    @Schema(description = "Cantidad de ajustes rechazados.")
+    private int rechazados;
+
+    @Schema(description = "Resultado de cada ajuste, en el orden de la entrada.")
+    private List<ResultadoAjusteStockDTO> filas;
+}
@@ -0,0 +1,32 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de un ajuste dentro de un ajuste masivo de stock.")
+public class ResultadoAjusteStockDTO {
+    public enum Estado { APLICADO, INVALIDO, NO_ENCONTRADO, STOCK_INSUFICIENTE, ERROR }
+
+    @Schema(description = "Posición del ajuste en la entrada, empezando en 0.")
+    private int fila;
+
+    @Schema(description = "ID del producto.")
+    private Long id;
+
+    @Schema(description = "Resultado del ajuste.")
+    private Estado estado;
+
+    @Schema(description = "Stock antes del ajuste. Nulo si el ajuste fue rechazado.")
+    private Integer stockAnterior;
+
+    @Schema(description = "Stock después del ajuste. Nulo si el ajuste fue rechazado.")
+    private Integer stock;
+
+    @Schema(description = "Motivo del rechazo. Nulo si el ajuste fue aplicado.")
+    private String error;
+}
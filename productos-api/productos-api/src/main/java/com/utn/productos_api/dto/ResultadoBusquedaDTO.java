@@ -0,0 +1,20 @@
+package com.utn.productos_api.dto;
+
+import com.utn.productos_api.model.Categoria;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Producto encontrado por la búsqueda de texto.")
+public class ResultadoBusquedaDTO {
+    private Long id;
+    private String nombre;
+    private Categoria categoria;
+
+    @Schema(description = "Relevancia del resultado; mayor es mejor.")
+    private int puntaje;
+}
@@ -0,0 +1,26 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de la importación de una fila.")
+public class ResultadoFilaDTO {
+    @Schema(description = "Posición de la fila en la entrada, empezando en 0.")
+    private int fila;
+
+    @Schema(description = "ID asignado al producto creado. Nulo si la fila fue rechazada.")
+    private Long id;
+
+    @Schema(description = "Indica si el producto fue creado.")
+    private boolean creado;
+
+    @Schema(description = "Errores de validación o de persistencia de la fila.")
+    private List<String> errores;
+}
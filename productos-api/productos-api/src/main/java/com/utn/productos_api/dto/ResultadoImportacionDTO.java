@@ -0,0 +1,26 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resumen de una importación masiva de productos.")
+public class ResultadoImportacionDTO {
+    @Schema(description = "Cantidad de filas recibidas.")
+    private int total;
+
+    @Schema(description = "Cantidad de productos creados.")
+    private int creados;
+
+    @Schema(description = "Cantidad de filas rechazadas.")
+    private int rechazados;
+
+    @Schema(description = "Resultado de cada fila, en el orden de la entrada.")
+    private List<ResultadoFilaDTO> filas;
+}
@@ -0,0 +1,20 @@
+package com.utn.productos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de la búsqueda de varios productos por ID.")
+public class ResultadoMultiGetDTO {
+    @Schema(description = "Productos encontrados, en el orden en que se pidieron.")
+    private List<ProductoResponseDTO> encontrados;
+
+    @Schema(description = "IDs pedidos que no corresponden a ningún producto.")
+    private List<Long> faltantes;
+}
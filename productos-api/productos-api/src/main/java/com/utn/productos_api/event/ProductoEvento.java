@@ -0,0 +1,47 @@
+package com.utn.productos_api.event;
+
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado por cada mutación de un producto.
+ *
+ * Los componentes que mantienen estado derivado del catálogo (caches, índices, etc.)
+ * lo escuchan con {@code @TransactionalEventListener}, de modo que solo reaccionan
+ * a cambios confirmados.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductoEvento {
+
+    public enum Tipo {
+        CREADO,
+        ACTUALIZADO,
+        ELIMINADO
+    }
+
+    private final Tipo tipo;
+
+    // Estado previo del producto; nulo cuando fue creado
+    private final ProductoResponseDTO anterior;
+
+    // Estado resultante del producto; nulo cuando fue eliminado
+    private final ProductoResponseDTO actual;
+
+    public static ProductoEvento creado(ProductoResponseDTO actual) {
+        return new ProductoEvento(Tipo.CREADO, null, actual);
+    }
+
+    public static ProductoEvento actualizado(ProductoResponseDTO anterior, ProductoResponseDTO actual) {
+        return new ProductoEvento(Tipo.ACTUALIZADO, anterior, actual);
+    }
+
+    public static ProductoEvento eliminado(ProductoResponseDTO anterior) {
+        return new ProductoEvento(Tipo.ELIMINADO, anterior, null);
+    }
+
+    public Long getId() {
+        return actual != null ? actual.getId() : anterior.getId();
+    }
+}
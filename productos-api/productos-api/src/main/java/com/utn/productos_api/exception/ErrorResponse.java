@@ -5,7 +5,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -19,7 +18,7 @@ public class ErrorResponse {
     public ErrorResponse(HttpStatus status, String message, String path) {
         this.timestamp = LocalDateTime.now();
         this.codigodeestado = status.value();
-        this.mensajeerror = mensajeerror;
-        this.rutadepeticion = rutadepeticion;
+        this.mensajeerror = message;
+        this.rutadepeticion = path;
     }
 }
@@ -1,27 +1,57 @@
 package com.utn.productos_api.exception;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+@Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+    private final long intervaloStackTraceNanos;
+    // Último instante en que se logueó el stack trace completo de cada tipo de excepción
+    private final Map<Class<?>, AtomicLong> ultimoStackTrace = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry,
+                                  @Value("${productos.errores.intervalo-stacktrace:0s}") Duration intervaloStackTrace) {
+        this.meterRegistry = meterRegistry;
+        this.intervaloStackTraceNanos = intervaloStackTrace.toNanos();
+    }
+
+    // Cuenta cada excepción manejada, por tipo de excepción y código de estado devuelto
+    private void contar(Exception ex, HttpStatus status) {
+        meterRegistry.counter("productos.excepciones",
+                "excepcion", ex.getClass().getSimpleName(),
+                "estado", String.valueOf(status.value())).increment();
+    }
+
     @ExceptionHandler(ProductoNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleNotFoundException(
             ProductoNotFoundException ex,
-            WebRequest request) {
+            HttpServletRequest request) {
 
         HttpStatus status = HttpStatus.NOT_FOUND;
 
         ErrorResponse errorResponse = new ErrorResponse(
                 status,
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                request.getRequestURI()
         );
 
+        contar(ex, status);
         return new ResponseEntity<>(errorResponse, status);
     }
 
@@ -29,7 +59,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(
             MethodArgumentNotValidException ex,
-            WebRequest request) {
+            HttpServletRequest request) {
 
         HttpStatus status = HttpStatus.BAD_REQUEST;
 
@@ -41,9 +71,10 @@ public class GlobalExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse(
                 status,
                 "Error de validación: " + validationErrors,
-                request.getDescription(false).replace("uri=", "")
+                request.getRequestURI()
         );
 
+        contar(ex, status);
         return new ResponseEntity<>(errorResponse, status);
     }
 
@@ -51,19 +82,20 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(
             Exception ex,
-            WebRequest request) {
+            HttpServletRequest request) {
 
         HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
 
         ErrorResponse errorResponse = new ErrorResponse(
                 status,
                 "Ocurrió un error inesperado en el servidor. Consulte los logs para más detalles.",
-                request.getDescription(false).replace("uri=", "")
+                request.getRequestURI()
         );
 
-        // Loggear la excepción para debugging en el servidor
-        ex.printStackTrace();
+        // Loggear la excepción para debugging en el servidor (con muestreo de stack traces, ver registrarError)
+        registrarError(ex, request);
 
+        contar(ex, status);
         return new ResponseEntity<>(errorResponse, status);
     }
 
@@ -71,16 +103,105 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(StockInsuficienteException.class)
     public ResponseEntity<ErrorResponse> handleStockException(
             StockInsuficienteException ex,
-            WebRequest request) {
+            HttpServletRequest request) {
 
         HttpStatus status = HttpStatus.BAD_REQUEST;
 
         ErrorResponse errorResponse = new ErrorResponse(
                 status,
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                request.getRequestURI()
+        );
+
+        contar(ex, status);
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    // Maneja la falta de conexiones libres en el pool (timeout de Hikari) -> Retornar 503 para que el cliente reintente
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorResponse> handleConexionNoDisponible(
+            Exception ex,
+            HttpServletRequest request) {
+
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                status,
+                "El servicio está saturado, intente nuevamente en unos instantes.",
+                request.getRequestURI()
         );
 
+        contar(ex, status);
         return new ResponseEntity<>(errorResponse, status);
     }
+
+    // Maneja el rechazo del control de admisión -> Retornar 503 con Retry-After, sin haber hecho trabajo
+    @ExceptionHandler(SobrecargaException.class)
+    public ResponseEntity<ErrorResponse> handleSobrecargaException(
+            SobrecargaException ex,
+            HttpServletRequest request) {
+
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                status,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        contar(ex, status);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getReintentarEn().toSeconds())))
+                .body(errorResponse);
+    }
+
+    // Maneja un If-Match que no coincide con la versión actual -> Retornar 412 para que el cliente relea el producto
+    @ExceptionHandler(PrecondicionFallidaException.class)
+    public ResponseEntity<ErrorResponse> handlePrecondicionFallidaException(
+            PrecondicionFallidaException ex,
+            HttpServletRequest request) {
+
+        HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                status,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        contar(ex, status);
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    @ExceptionHandler(ParametroInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleParametroInvalidoException(
+            ParametroInvalidoException ex,
+            HttpServletRequest request) {
+
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                status,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        contar(ex, status);
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    /**
+     * Loguea el stack trace completo a lo sumo una vez por intervalo y por tipo de excepción;
+     * el resto de las ocurrencias se loguea en una sola línea. Con intervalo 0 se loguea siempre completo.
+     */
+    private void registrarError(Exception ex, HttpServletRequest request) {
+        long ahora = System.nanoTime();
+        AtomicLong ultimo = ultimoStackTrace.computeIfAbsent(ex.getClass(), tipo -> new AtomicLong(ahora - intervaloStackTraceNanos));
+        long anterior = ultimo.get();
+        if (ahora - anterior >= intervaloStackTraceNanos && ultimo.compareAndSet(anterior, ahora)) {
+            log.error("Error inesperado en {} {}", request.getMethod(), request.getRequestURI(), ex);
+        } else {
+            log.error("Error inesperado en {} {}: {}", request.getMethod(), request.getRequestURI(), ex.toString());
+        }
+    }
 }
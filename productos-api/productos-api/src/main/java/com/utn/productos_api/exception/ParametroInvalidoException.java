@@ -0,0 +1,11 @@
+package com.utn.productos_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ParametroInvalidoException extends RuntimeException{
+    public ParametroInvalidoException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.utn.productos_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PrecondicionFallidaException extends RuntimeException {
+    public PrecondicionFallidaException(Long id) {
+        super("El producto con ID " + id + " fue modificado por otra petición (If-Match no coincide)", null, false, false);
+    }
+}
@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class ProductoNotFoundException extends RuntimeException{
     public ProductoNotFoundException(Long id) {
-        super("Producto no encontrado con ID: " + id);
+        super("Producto no encontrado con ID: " + id, null, false, false);
     }
 }
@@ -0,0 +1,20 @@
+package com.utn.productos_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SobrecargaException extends RuntimeException {
+    private final Duration reintentarEn;
+
+    public SobrecargaException(String clase, Duration reintentarEn) {
+        super("El servicio está saturado (" + clase + "), intente nuevamente en unos instantes.", null, false, false);
+        this.reintentarEn = reintentarEn;
+    }
+
+    public Duration getReintentarEn() {
+        return reintentarEn;
+    }
+}
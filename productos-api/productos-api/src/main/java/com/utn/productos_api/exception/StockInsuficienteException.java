@@ -4,10 +4,11 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class StockInsuficienteException extends RuntimeException{
     public StockInsuficienteException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public StockInsuficienteException(int stockActual, int cantidadSolicitada) {
-        super("Stock insuficiente. Stock actual: " + stockActual + ", cantidad solicitada: " + cantidadSolicitada);
+        super("Stock insuficiente. Stock actual: " + stockActual + ", cantidad solicitada: " + cantidadSolicitada,
+                null, false, false);
     }
 }
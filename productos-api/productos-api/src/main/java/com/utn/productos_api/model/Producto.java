@@ -6,12 +6,24 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.IdGeneratorType;
 
 @Entity
+@Table(indexes = {
+        // Soporta la paginación por cursor dentro de una categoría
+        @Index(name = "idx_producto_categoria_id", columnList = "categoria, id"),
+        // Soportan los filtros por rango de precio y por stock máximo
+        @Index(name = "idx_producto_precio", columnList = "precio"),
+        @Index(name = "idx_producto_stock", columnList = "stock"),
+        // Soporta el feed de cambios (productos modificados desde una versión)
+        @Index(name = "idx_producto_version_cambio", columnList = "versionCambio")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Producto {
+    // Secuencia con optimizador "pooled": a diferencia de IDENTITY, permite que Hibernate
+    // agrupe los INSERT en lotes JDBC porque el ID se conoce antes de insertar.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_seq")
+    @SequenceGenerator(name = "producto_seq", sequenceName = "producto_seq", allocationSize = 50)
     private long id;
 
     private String nombre;
@@ -24,4 +36,7 @@ public class Producto {
 
     @Enumerated(EnumType.STRING)
     private Categoria categoria;
+
+    // Versión global y creciente asignada en cada mutación (ver GeneradorVersionCambio)
+    private long versionCambio;
 }
@@ -0,0 +1,28 @@
+package com.utn.productos_api.model;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca (tombstone) que deja la eliminación de un producto, para que el feed de
+ * cambios pueda informar la baja a quienes replican el catálogo.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_producto_eliminado_version_cambio", columnList = "versionCambio"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoEliminado {
+    @Id
+    private Long id;
+
+    private long versionCambio;
+
+    @Enumerated(EnumType.STRING)
+    private Categoria categoria;
+
+    private LocalDateTime eliminadoEn;
+}
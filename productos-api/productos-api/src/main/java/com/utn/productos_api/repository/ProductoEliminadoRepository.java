@@ -0,0 +1,16 @@
+package com.utn.productos_api.repository;
+
+import com.utn.productos_api.model.ProductoEliminado;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+public interface ProductoEliminadoRepository extends JpaRepository<ProductoEliminado, Long> {
+
+    List<ProductoEliminado> findByVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(
+            long desde, long hasta, Limit limit);
+
+    @Query("select coalesce(max(e.versionCambio), 0) from ProductoEliminado e")
+    long maxVersionCambio();
+}
@@ -1,12 +1,125 @@
 package com.utn.productos_api.repository;
 
+import com.utn.productos_api.dto.CambioProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
 import com.utn.productos_api.model.Categoria;
 import com.utn.productos_api.model.Producto;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+import java.util.Optional;
+import java.util.stream.Stream;
+public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto>,
+        ProductoRepositoryProyecciones {
+
+    /**
+     * Las consultas de solo lectura construyen directamente el DTO de respuesta con las
+     * columnas necesarias: no se crean entidades administradas ni snapshots para dirty checking.
+     */
+    String SELECT_RESPUESTA = "select new com.utn.productos_api.dto.ProductoResponseDTO(" +
+            "p.id, p.nombre, p.descripcion, p.precio, p.stock, p.categoria) from Producto p ";
 
     List<Producto> findByCategoria(Categoria categoria);
+
+    @Query(SELECT_RESPUESTA + "where p.id = :id")
+    Optional<ProductoResponseDTO> findRespuestaById(@Param("id") Long id);
+
+    /**
+     * Versión de cambio de un producto, sin cargar la entidad. Alcanza para armar su ETag.
+     */
+    @Query("select p.versionCambio from Producto p where p.id = :id")
+    Optional<Long> findVersionCambioById(@Param("id") Long id);
+
+    /**
+     * Carga el producto bloqueando su fila hasta el fin de la transacción (SELECT ... FOR UPDATE),
+     * para verificar una precondición (If-Match) y modificarlo sin que otra escritura se intercale.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Producto p where p.id = :id")
+    Optional<Producto> findParaActualizarById(@Param("id") Long id);
+
+    @Query(SELECT_RESPUESTA + "where p.id in :ids")
+    List<ProductoResponseDTO> findRespuestasByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_RESPUESTA + "order by p.id")
+    List<ProductoResponseDTO> findAllRespuestas();
+
+    @Query(SELECT_RESPUESTA + "where p.categoria = :categoria order by p.id")
+    List<ProductoResponseDTO> findRespuestasByCategoria(@Param("categoria") Categoria categoria);
+
+    /**
+     * Paginación por cursor (keyset) sobre la clave primaria:
+     * devuelve los productos con ID mayor a {@code id}, ordenados por ID.
+     */
+    @Query(SELECT_RESPUESTA + "where p.id > :id order by p.id")
+    List<ProductoResponseDTO> findPaginaDesde(@Param("id") Long id, Limit limit);
+
+    /**
+     * Paginación por cursor (keyset) dentro de una categoría.
+     * Se apoya en el índice compuesto (categoria, id) declarado en {@link Producto}.
+     */
+    @Query(SELECT_RESPUESTA + "where p.categoria = :categoria and p.id > :id order by p.id")
+    List<ProductoResponseDTO> findPaginaPorCategoriaDesde(@Param("categoria") Categoria categoria,
+                                                          @Param("id") Long id, Limit limit);
+
+    /**
+     * Recorre todo el catálogo con un cursor de base de datos, ordenado por ID.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESPUESTA + "order by p.id")
+    Stream<ProductoResponseDTO> streamRespuestas();
+
+    /**
+     * Descuenta stock en un único UPDATE condicional, sin leer antes la fila.
+     * La base de datos serializa los UPDATE concurrentes sobre la misma fila, por lo que
+     * no se pierden actualizaciones y el stock nunca queda negativo.
+     *
+     * @return Cantidad de filas actualizadas: 0 si el producto no existe o el stock no alcanza
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Producto p set p.stock = p.stock - :cantidad, p.versionCambio = :version " +
+            "where p.id = :id and p.stock >= :cantidad")
+    int decrementarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("version") long version);
+
+    /**
+     * Suma stock en un único UPDATE atómico.
+     *
+     * @return Cantidad de filas actualizadas: 0 si el producto no existe
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Producto p set p.stock = p.stock + :cantidad, p.versionCambio = :version where p.id = :id")
+    int incrementarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("version") long version);
+
+    /**
+     * Productos creados o modificados en el rango de versiones (desde, hasta], en orden de versión,
+     * proyectados directamente a cambios del feed.
+     */
+    @Query("select new com.utn.productos_api.dto.CambioProductoDTO(p.id, p.versionCambio, p.nombre, " +
+            "p.descripcion, p.precio, p.stock, p.categoria) from Producto p " +
+            "where p.versionCambio > :desde and p.versionCambio <= :hasta order by p.versionCambio")
+    List<CambioProductoDTO> findCambiosEntre(@Param("desde") long desde, @Param("hasta") long hasta, Limit limit);
+
+    @Query("select coalesce(max(p.versionCambio), 0) from Producto p")
+    long maxVersionCambio();
+
+    /**
+     * Totales de inventario agrupados por categoría, calculados por la base de datos.
+     */
+    @Query("select p.categoria as categoria, count(p) as productos, " +
+            "coalesce(sum(p.stock), 0) as unidades, coalesce(sum(p.precio * p.stock), 0) as valor " +
+            "from Producto p group by p.categoria")
+    List<TotalesCategoria> totalesPorCategoria();
 }
@@ -0,0 +1,24 @@
+package com.utn.productos_api.repository;
+
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.model.Producto;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Consultas de {@link ProductoRepository} que Spring Data no puede derivar: una {@link Specification}
+ * proyectada directamente a {@link ProductoResponseDTO}, sin cargar entidades administradas.
+ */
+public interface ProductoRepositoryProyecciones {
+
+    /**
+     * Productos que cumplen el filtro, proyectados a DTO.
+     *
+     * @param filtro Criterios combinados, puede ser nulo
+     * @param orden Orden de los resultados, sobre propiedades de {@link Producto}
+     * @param limite Cantidad máxima de productos a devolver
+     */
+    List<ProductoResponseDTO> filtrarRespuestas(Specification<Producto> filtro, Sort orden, int limite);
+}
@@ -0,0 +1,40 @@
+package com.utn.productos_api.repository;
+
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.model.Producto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Implementación de {@link ProductoRepositoryProyecciones} con la API de Criteria: la misma
+ * consulta que arma {@code findBy(Specification, ...)}, pero con un {@code select new} de las
+ * columnas de {@link ProductoResponseDTO} en lugar de la entidad.
+ */
+class ProductoRepositoryProyeccionesImpl implements ProductoRepositoryProyecciones {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductoResponseDTO> filtrarRespuestas(Specification<Producto> filtro, Sort orden, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductoResponseDTO> consulta = cb.createQuery(ProductoResponseDTO.class);
+        Root<Producto> producto = consulta.from(Producto.class);
+        consulta.select(cb.construct(ProductoResponseDTO.class, producto.get("id"), producto.get("nombre"),
+                producto.get("descripcion"), producto.get("precio"), producto.get("stock"),
+                producto.get("categoria")));
+        if (filtro != null) {
+            consulta.where(filtro.toPredicate(producto, consulta, cb));
+        }
+        consulta.orderBy(QueryUtils.toOrders(orden, producto, cb));
+        return entityManager.createQuery(consulta).setMaxResults(limite).getResultList();
+    }
+}
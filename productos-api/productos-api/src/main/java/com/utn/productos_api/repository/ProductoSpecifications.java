@@ -0,0 +1,40 @@
+package com.utn.productos_api.repository;
+
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.model.Producto;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Criterios de filtrado combinables para {@link Producto}.
+ * Cada método devuelve {@code null} cuando el parámetro no se envía, y
+ * {@link Specification#where} ignora los criterios nulos.
+ */
+public final class ProductoSpecifications {
+
+    private ProductoSpecifications() {
+    }
+
+    public static Specification<Producto> conCategoria(Categoria categoria) {
+        return categoria == null ? null : (root, query, cb) -> cb.equal(root.get("categoria"), categoria);
+    }
+
+    public static Specification<Producto> precioDesde(Double minPrecio) {
+        return minPrecio == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("precio"), minPrecio);
+    }
+
+    public static Specification<Producto> precioHasta(Double maxPrecio) {
+        return maxPrecio == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("precio"), maxPrecio);
+    }
+
+    public static Specification<Producto> stockHasta(Integer maxStock) {
+        return maxStock == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("stock"), maxStock);
+    }
+
+    public static Specification<Producto> nombreContiene(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return null;
+        }
+        String patron = "%" + nombre.trim().toLowerCase() + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("nombre")), patron);
+    }
+}
@@ -0,0 +1,16 @@
+package com.utn.productos_api.repository;
+
+import com.utn.productos_api.model.Categoria;
+
+/**
+ * Proyección con los totales de inventario de una categoría.
+ */
+public interface TotalesCategoria {
+    Categoria getCategoria();
+
+    long getProductos();
+
+    long getUnidades();
+
+    double getValor();
+}
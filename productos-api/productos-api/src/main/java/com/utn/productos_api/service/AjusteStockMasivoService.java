@@ -0,0 +1,242 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.AjusteStockMasivoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.dto.ResultadoAjusteMasivoDTO;
+import com.utn.productos_api.dto.ResultadoAjusteStockDTO;
+import com.utn.productos_api.dto.ResultadoAjusteStockDTO.Estado;
+import com.utn.productos_api.event.ProductoEvento;
+import com.utn.productos_api.exception.ProductoNotFoundException;
+import com.utn.productos_api.exception.StockInsuficienteException;
+import com.utn.productos_api.model.Categoria;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ajuste masivo de stock, para conciliaciones de depósito con miles de correcciones.
+ *
+ * Los ajustes se agrupan por producto y se aplican en lotes de productos, cada lote en su propia
+ * transacción. Dentro de un lote las filas se bloquean con un único {@code SELECT ... FOR UPDATE}
+ * en orden de ID: dos ajustes masivos concurrentes piden los locks en el mismo orden, así que
+ * pueden esperarse pero no quedar en deadlock. Los UPDATE de cada lote van en un batch JDBC.
+ *
+ * Un producto inexistente o un ajuste que dejaría el stock negativo se informa en su fila, con el
+ * mensaje de {@link ProductoNotFoundException} o {@link StockInsuficienteException}, sin afectar al
+ * resto. Un error al escribir un lote (por ejemplo, un timeout de lock) marca solo los ajustes de ese lote.
+ *
+ * Varios ajustes sobre el mismo producto se aplican en el orden en que llegan.
+ */
+@Slf4j
+@Service
+public class AjusteStockMasivoService {
+    static final int TAMANIO_LOTE = 500;
+    private static final String ERROR_LOTE = "Ocurrió un error inesperado al aplicar el lote. Consulte los logs para más detalles.";
+
+    private static final String SQL_BLOQUEAR =
+            "select id, nombre, descripcion, precio, stock, categoria from producto where id in (%s) order by id for update";
+    private static final String SQL_FIJAR_STOCK =
+            "update producto set stock = ?, version_cambio = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GeneradorVersionCambio generadorVersionCambio;
+    private final StockLedger stockLedger;
+    private final ProductoService productoService;
+
+    public AjusteStockMasivoService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    GeneradorVersionCambio generadorVersionCambio,
+                                    StockLedger stockLedger,
+                                    ProductoService productoService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.generadorVersionCambio = generadorVersionCambio;
+        this.stockLedger = stockLedger;
+        this.productoService = productoService;
+    }
+
+    /**
+     * Aplica los ajustes recibidos.
+     *
+     * @param ajustes Ajustes a aplicar; cada uno indica un stock absoluto o un delta
+     * @return Resumen con el resultado de cada ajuste, en el orden de la entrada
+     */
+    public ResultadoAjusteMasivoDTO ajustar(List<AjusteStockMasivoDTO> ajustes) {
+        List<ResultadoAjusteStockDTO> resultados = new ArrayList<>(ajustes.size());
+        // Filas válidas agrupadas por producto: los productos en orden de ID, las filas en orden de llegada
+        TreeMap<Long, List<Integer>> porProducto = new TreeMap<>();
+
+        for (int fila = 0; fila < ajustes.size(); fila++) {
+            AjusteStockMasivoDTO ajuste = ajustes.get(fila);
+            ResultadoAjusteStockDTO resultado =
+                    new ResultadoAjusteStockDTO(fila, ajuste != null ? ajuste.getId() : null, null, null, null, null);
+            resultados.add(resultado);
+            String error = validar(ajuste);
+            if (error != null) {
+                rechazar(resultado, Estado.INVALIDO, error);
+            } else {
+                porProducto.computeIfAbsent(ajuste.getId(), id -> new ArrayList<>()).add(fila);
+            }
+        }
+
+        if (stockLedger.isHabilitado()) {
+            aplicarEnLedger(porProducto, ajustes, resultados);
+        } else {
+            List<Long> lote = new ArrayList<>(TAMANIO_LOTE);
+            for (Long id : porProducto.keySet()) {
+                lote.add(id);
+                if (lote.size() == TAMANIO_LOTE) {
+                    aplicarLote(lote, porProducto, ajustes, resultados);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                aplicarLote(lote, porProducto, ajustes, resultados);
+            }
+        }
+
+        int aplicados = (int) resultados.stream().filter(r -> r.getEstado() == Estado.APLICADO).count();
+        return new ResultadoAjusteMasivoDTO(resultados.size(), aplicados, resultados.size() - aplicados, resultados);
+    }
+
+    private static String validar(AjusteStockMasivoDTO ajuste) {
+        if (ajuste == null) {
+            return "La fila no contiene un ajuste";
+        }
+        if (ajuste.getId() == null) {
+            return "id: no debe ser nulo";
+        }
+        if ((ajuste.getStock() == null) == (ajuste.getDelta() == null)) {
+            return "Se debe indicar exactamente uno de 'stock' o 'delta'";
+        }
+        if (ajuste.getStock() != null && ajuste.getStock() < 0) {
+            return "stock: debe ser mayor que o igual a 0";
+        }
+        return null;
+    }
+
+    private void aplicarLote(List<Long> ids, Map<Long, List<Integer>> porProducto,
+                             List<AjusteStockMasivoDTO> ajustes, List<ResultadoAjusteStockDTO> resultados) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, ProductoResponseDTO> bloqueados = bloquear(ids);
+                List<Object[]> actualizaciones = new ArrayList<>();
+                List<ProductoEvento> eventos = new ArrayList<>();
+
+                for (Long id : ids) {
+                    List<Integer> filas = porProducto.get(id);
+                    ProductoResponseDTO anterior = bloqueados.get(id);
+                    if (anterior == null) {
+                        String error = new ProductoNotFoundException(id).getMessage();
+                        filas.forEach(fila -> rechazar(resultados.get(fila), Estado.NO_ENCONTRADO, error));
+                        continue;
+                    }
+                    int stock = anterior.getStock();
+                    for (int fila : filas) {
+                        stock = aplicar(ajustes.get(fila), stock, resultados.get(fila));
+                    }
+                    if (stock != anterior.getStock()) {
+                        actualizaciones.add(new Object[]{stock, generadorVersionCambio.siguiente(), id});
+                        eventos.add(ProductoEvento.actualizado(anterior, conStock(anterior, stock)));
+                    }
+                }
+
+                if (!actualizaciones.isEmpty()) {
+                    jdbcTemplate.batchUpdate(SQL_FIJAR_STOCK, actualizaciones);
+                }
+                eventos.forEach(eventPublisher::publishEvent);
+            });
+        } catch (RuntimeException e) {
+            // El mensaje de JDBC puede traer SQL y valores: queda en el log
+            log.error("Error al aplicar un lote de ajustes de {} productos", ids.size(), e);
+            ids.forEach(id -> porProducto.get(id).forEach(fila -> rechazar(resultados.get(fila), Estado.ERROR, ERROR_LOTE)));
+        }
+    }
+
+    // Bloquea las filas en orden de ID; las que no aparecen en el resultado no existen
+    private Map<Long, ProductoResponseDTO> bloquear(List<Long> ids) {
+        String sql = SQL_BLOQUEAR.formatted(String.join(",", Collections.nCopies(ids.size(), "?")));
+        Map<Long, ProductoResponseDTO> productos = new HashMap<>(ids.size() * 2);
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            String categoria = rs.getString("categoria");
+            productos.put(rs.getLong("id"), new ProductoResponseDTO(rs.getLong("id"), rs.getString("nombre"),
+                    rs.getString("descripcion"), rs.getDouble("precio"), rs.getInt("stock"),
+                    categoria != null ? Categoria.valueOf(categoria) : null));
+        }, ids.toArray());
+        return productos;
+    }
+
+    // Aplica un ajuste sobre el stock en curso del producto y devuelve el stock resultante
+    private static int aplicar(AjusteStockMasivoDTO ajuste, int stock, ResultadoAjusteStockDTO resultado) {
+        long nuevoStock = ajuste.getStock() != null ? ajuste.getStock() : (long) stock + ajuste.getDelta();
+        if (nuevoStock < 0) {
+            rechazar(resultado, Estado.STOCK_INSUFICIENTE,
+                    new StockInsuficienteException(stock, -ajuste.getDelta()).getMessage());
+            return stock;
+        }
+        if (nuevoStock > Integer.MAX_VALUE) {
+            rechazar(resultado, Estado.INVALIDO, "El stock resultante supera el máximo permitido");
+            return stock;
+        }
+        aplicado(resultado, stock, (int) nuevoStock);
+        return (int) nuevoStock;
+    }
+
+    // En modo ledger el stock vive en memoria: cada ajuste se aplica con las operaciones del servicio
+    private void aplicarEnLedger(Map<Long, List<Integer>> porProducto,
+                                 List<AjusteStockMasivoDTO> ajustes, List<ResultadoAjusteStockDTO> resultados) {
+        porProducto.forEach((id, filas) -> filas.forEach(fila -> {
+            AjusteStockMasivoDTO ajuste = ajustes.get(fila);
+            ResultadoAjusteStockDTO resultado = resultados.get(fila);
+            try {
+                if (ajuste.getStock() != null) {
+                    aplicado(resultado, productoService.fijarStockEnLedger(id, ajuste.getStock()), ajuste.getStock());
+                } else {
+                    int delta = ajuste.getDelta();
+                    ProductoResponseDTO producto = delta >= 0
+                            ? productoService.incrementarStock(id, delta)
+                            : productoService.decrementarStock(id, -delta);
+                    aplicado(resultado, producto.getStock() - delta, producto.getStock());
+                }
+            } catch (ProductoNotFoundException e) {
+                rechazar(resultado, Estado.NO_ENCONTRADO, e.getMessage());
+            } catch (StockInsuficienteException e) {
+                rechazar(resultado, Estado.STOCK_INSUFICIENTE, e.getMessage());
+            }
+        }));
+    }
+
+    private static void aplicado(ResultadoAjusteStockDTO resultado, int stockAnterior, int stock) {
+        resultado.setEstado(Estado.APLICADO);
+        resultado.setStockAnterior(stockAnterior);
+        resultado.setStock(stock);
+        resultado.setError(null);
+    }
+
+    private static void rechazar(ResultadoAjusteStockDTO resultado, Estado estado, String error) {
+        resultado.setEstado(estado);
+        resultado.setStockAnterior(null);
+        resultado.setStock(null);
+        resultado.setError(error);
+    }
+
+    private static ProductoResponseDTO conStock(ProductoResponseDTO producto, int stock) {
+        return new ProductoResponseDTO(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), stock, producto.getCategoria());
+    }
+}
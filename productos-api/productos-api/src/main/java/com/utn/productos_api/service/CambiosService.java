@@ -0,0 +1,74 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.CambioProductoDTO;
+import com.utn.productos_api.dto.CambiosDTO;
+import com.utn.productos_api.model.ProductoEliminado;
+import com.utn.productos_api.repository.ProductoEliminadoRepository;
+import com.utn.productos_api.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Feed de cambios del catálogo: devuelve los productos creados, modificados o eliminados
+ * después de una versión dada, para que las réplicas sincronicen en tiempo proporcional
+ * a la cantidad de cambios y no al tamaño del catálogo. Los productos modificados se proyectan
+ * directamente a DTO, sin cargar entidades.
+ *
+ * En modo ledger cada producto modificado lleva el stock en memoria. Un cambio solo de stock
+ * aparece en el feed cuando el flush lo escribe en la base, con la versión que le asigna.
+ *
+ * El feed se lee siempre del primario: la versión segura sale del contador en memoria, que va por
+ * delante de una réplica atrasada, y un cliente que avanzara hasta ella se saltearía los cambios
+ * que la réplica todavía no recibió.
+ */
+@Service
+@RequiredArgsConstructor
+public class CambiosService {
+
+    private final ProductoRepository productoRepository;
+    private final ProductoEliminadoRepository productoEliminadoRepository;
+    private final GeneradorVersionCambio generadorVersionCambio;
+    private final StockLedger stockLedger;
+
+    /**
+     * Obtiene los cambios con versión mayor a {@code desde}, hasta la versión segura actual.
+     *
+     * @param desde Última versión ya procesada por el cliente (0 para empezar desde el principio)
+     * @param limit Cantidad máxima de cambios a devolver
+     * @return Cambios ordenados por versión y la versión desde la cual continuar
+     */
+    // Sin readOnly para que, con réplicas, la transacción vaya al primario
+    @Transactional
+    public CambiosDTO obtenerCambios(long desde, int limit) {
+        int tamanio = Math.min(Math.max(limit, 1), ProductoService.LIMITE_PAGINA_MAXIMO);
+        long hasta = generadorVersionCambio.versionSegura();
+
+        List<CambioProductoDTO> cambios = new ArrayList<>();
+        for (CambioProductoDTO cambio : productoRepository.findCambiosEntre(desde, hasta, Limit.of(tamanio + 1))) {
+            Integer stock = stockLedger.isHabilitado() ? stockLedger.stockActual(cambio.getId()) : null;
+            if (stock != null) {
+                cambio.getProducto().setStock(stock);
+            }
+            cambios.add(cambio);
+        }
+        for (ProductoEliminado eliminado : productoEliminadoRepository
+                .findByVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(
+                        desde, hasta, Limit.of(tamanio + 1))) {
+            cambios.add(new CambioProductoDTO(CambioProductoDTO.Tipo.ELIMINADO, eliminado.getId(),
+                    eliminado.getVersionCambio(), null));
+        }
+        cambios.sort(Comparator.comparingLong(CambioProductoDTO::getVersion));
+
+        boolean hayMas = cambios.size() > tamanio;
+        List<CambioProductoDTO> pagina = hayMas ? cambios.subList(0, tamanio) : cambios;
+        // Sin más cambios, el cliente puede avanzar hasta la versión segura aunque la página esté vacía
+        long ultimaVersion = hayMas ? pagina.get(pagina.size() - 1).getVersion() : Math.max(desde, hasta);
+        return new CambiosDTO(new ArrayList<>(pagina), ultimaVersion, hayMas);
+    }
+}
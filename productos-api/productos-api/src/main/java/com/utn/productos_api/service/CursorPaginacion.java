@@ -0,0 +1,35 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.exception.ParametroInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica el token opaco de continuación usado en la paginación por cursor.
+ * El token encapsula el último ID entregado; los clientes no deben interpretarlo.
+ */
+final class CursorPaginacion {
+
+    private static final String PREFIJO = "v1:";
+
+    private CursorPaginacion() {
+    }
+
+    static String codificar(long ultimoId) {
+        byte[] bytes = (PREFIJO + ultimoId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static long decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!valor.startsWith(PREFIJO)) {
+                throw new ParametroInvalidoException("Cursor de paginación inválido");
+            }
+            return Long.parseLong(valor.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ParametroInvalidoException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.EventoProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.event.ProductoEvento;
+import com.utn.productos_api.model.Categoria;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Difunde por Server-Sent Events los cambios de stock y precio confirmados.
+ *
+ * Quien escribe nunca hace I/O: solo deja el evento en el buffer de cada suscriptor y,
+ * si hace falta, programa su envío en un hilo virtual propio del suscriptor. Cada buffer está acotado
+ * y se coalesce por producto (queda el último estado de cada uno); si aun así se llena,
+ * se descarta el evento más viejo. Así un consumidor lento no frena a los demás ni a las escrituras.
+ *
+ * Periódicamente se manda un latido (un comentario SSE) a los suscriptores sin envíos en curso, para
+ * detectar conexiones muertas y que los proxies no corten la conexión ociosa; al mismo tiempo se
+ * desconecta a quien lleva más de {@code productos.stream.timeout-envio} trabado en un envío.
+ */
+@Slf4j
+@Component
+public class DifusorEventosProducto {
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    // Un hilo virtual por envío: un cliente trabado solo ocupa el suyo; hay a lo sumo un envío por suscriptor
+    private final ExecutorService envios = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-envio-", 0).factory());
+    private final int capacidadBuffer;
+    private final Duration timeout;
+    private final long timeoutEnvioNanos;
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong trabados = new AtomicLong();
+
+    public DifusorEventosProducto(@Value("${productos.stream.buffer-por-suscriptor:256}") int capacidadBuffer,
+                                  @Value("${productos.stream.timeout:30m}") Duration timeout,
+                                  @Value("${productos.stream.timeout-envio:10s}") Duration timeoutEnvio) {
+        this.capacidadBuffer = capacidadBuffer;
+        this.timeout = timeout;
+        this.timeoutEnvioNanos = timeoutEnvio.toNanos();
+    }
+
+    /**
+     * Registra un nuevo suscriptor.
+     *
+     * @param categoria Categoría de la que se quieren recibir eventos, o {@code null} para todas
+     * @return Emisor SSE asociado al suscriptor
+     */
+    public SseEmitter suscribir(Categoria categoria) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Suscriptor suscriptor = new Suscriptor(emitter, categoria);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(error -> suscriptores.remove(suscriptor));
+        suscriptores.add(suscriptor);
+        return emitter;
+    }
+
+    public int cantidadSuscriptores() {
+        return suscriptores.size();
+    }
+
+    public long eventosDescartados() {
+        return descartados.get();
+    }
+
+    public long suscriptoresTrabados() {
+        return trabados.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoEvento evento) {
+        if (evento.getTipo() == ProductoEvento.Tipo.CREADO || suscriptores.isEmpty()) {
+            return;
+        }
+        EventoProductoDTO dto = aEvento(evento);
+        Categoria categoriaAnterior = evento.getAnterior().getCategoria();
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.categoria == null || suscriptor.categoria == dto.getCategoria()
+                    || suscriptor.categoria == categoriaAnterior) {
+                suscriptor.encolar(dto);
+            }
+        }
+    }
+
+    /**
+     * Desconecta a los suscriptores con un envío trabado y pide un latido a los demás.
+     * Solo encola trabajo: no hace I/O en el hilo del scheduler.
+     */
+    @Scheduled(fixedDelayString = "${productos.stream.intervalo-latido:15000}",
+            initialDelayString = "${productos.stream.intervalo-latido:15000}")
+    public void latir() {
+        long ahora = System.nanoTime();
+        for (Suscriptor suscriptor : suscriptores) {
+            long desde = suscriptor.enviandoDesde;
+            if (desde != 0 && ahora - desde > timeoutEnvioNanos) {
+                trabados.incrementAndGet();
+                suscriptor.desconectar(new TimeoutException("Envío SSE trabado por más de "
+                        + Duration.ofNanos(timeoutEnvioNanos)));
+            } else {
+                suscriptor.pedirLatido();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        envios.shutdownNow();
+        suscriptores.forEach(suscriptor -> suscriptor.emitter.complete());
+        suscriptores.clear();
+    }
+
+    private static EventoProductoDTO aEvento(ProductoEvento evento) {
+        if (evento.getTipo() == ProductoEvento.Tipo.ELIMINADO) {
+            ProductoResponseDTO anterior = evento.getAnterior();
+            return new EventoProductoDTO(EventoProductoDTO.Tipo.ELIMINADO, anterior.getId(),
+                    anterior.getCategoria(), null, null);
+        }
+        ProductoResponseDTO actual = evento.getActual();
+        return new EventoProductoDTO(EventoProductoDTO.Tipo.ACTUALIZADO, actual.getId(), actual.getCategoria(),
+                actual.getPrecio(), actual.getStock());
+    }
+
+    private final class Suscriptor {
+        private final SseEmitter emitter;
+        private final Categoria categoria;
+        private final ReentrantLock lock = new ReentrantLock();
+        // Último evento pendiente de cada producto, en orden de llegada
+        private final LinkedHashMap<Long, EventoProductoDTO> pendientes = new LinkedHashMap<>();
+        private boolean latidoPendiente;
+        private final AtomicBoolean envioProgramado = new AtomicBoolean();
+        // System.nanoTime() al empezar el envío en curso, 0 si no hay ninguno
+        private volatile long enviandoDesde;
+        private volatile Thread hiloEnvio;
+
+        private Suscriptor(SseEmitter emitter, Categoria categoria) {
+            this.emitter = emitter;
+            this.categoria = categoria;
+        }
+
+        void encolar(EventoProductoDTO evento) {
+            lock.lock();
+            try {
+                if (pendientes.remove(evento.getId()) == null && pendientes.size() >= capacidadBuffer) {
+                    Iterator<Long> masViejo = pendientes.keySet().iterator();
+                    masViejo.next();
+                    masViejo.remove();
+                    descartados.incrementAndGet();
+                }
+                pendientes.put(evento.getId(), evento);
+            } finally {
+                lock.unlock();
+            }
+            programarEnvio();
+        }
+
+        void pedirLatido() {
+            lock.lock();
+            try {
+                latidoPendiente = true;
+            } finally {
+                lock.unlock();
+            }
+            programarEnvio();
+        }
+
+        /**
+         * Saca al suscriptor de la difusión y cierra su conexión. El cierre corre en un hilo virtual:
+         * el emisor no se puede completar mientras otro hilo está trabado enviando por él.
+         */
+        void desconectar(Exception causa) {
+            if (!suscriptores.remove(this)) {
+                return;
+            }
+            log.debug("Suscriptor desconectado: {}", causa.getMessage());
+            Thread hilo = hiloEnvio;
+            if (hilo != null && hilo != Thread.currentThread()) {
+                hilo.interrupt();
+            }
+            try {
+                envios.execute(() -> emitter.completeWithError(causa));
+            } catch (RuntimeException e) {
+                // El difusor se está cerrando y ya completa a todos los emisores
+            }
+        }
+
+        private void programarEnvio() {
+            if (envioProgramado.compareAndSet(false, true)) {
+                try {
+                    envios.execute(this::enviarPendientes);
+                } catch (RuntimeException e) {
+                    envioProgramado.set(false);
+                }
+            }
+        }
+
+        private void enviarPendientes() {
+            List<EventoProductoDTO> lote;
+            boolean latido;
+            lock.lock();
+            try {
+                lote = new ArrayList<>(pendientes.values());
+                pendientes.clear();
+                // Si hay eventos para mandar, ellos mismos hacen de latido
+                latido = latidoPendiente && lote.isEmpty();
+                latidoPendiente = false;
+            } finally {
+                lock.unlock();
+            }
+            hiloEnvio = Thread.currentThread();
+            enviandoDesde = System.nanoTime();
+            try {
+                for (EventoProductoDTO evento : lote) {
+                    emitter.send(SseEmitter.event().name(evento.getTipo().name()).data(evento));
+                }
+                if (latido) {
+                    emitter.send(SseEmitter.event().comment("latido"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                desconectar(e);
+                return;
+            } finally {
+                enviandoDesde = 0;
+                hiloEnvio = null;
+                envioProgramado.set(false);
+            }
+            // Pudieron llegar eventos mientras se enviaba el lote
+            lock.lock();
+            try {
+                if (pendientes.isEmpty()) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            programarEnvio();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.repository.ProductoEliminadoRepository;
+import com.utn.productos_api.repository.ProductoRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Genera la versión de cambio global y creciente que se estampa en cada mutación de productos.
+ *
+ * Las versiones se asignan antes del commit, así que una transacción con versión menor puede
+ * confirmarse después que otra con versión mayor. Para que el feed de cambios no se salte
+ * ninguna, se registran las versiones de las transacciones en curso y el feed solo entrega
+ * hasta la {@link #versionSegura() versión segura}: la anterior a la menor versión en curso.
+ *
+ * El contador se inicializa con el máximo guardado en la base de datos; es válido para
+ * una única instancia de la aplicación.
+ */
+@Component
+@RequiredArgsConstructor
+public class GeneradorVersionCambio {
+
+    private final ProductoRepository productoRepository;
+    private final ProductoEliminadoRepository productoEliminadoRepository;
+
+    private final AtomicLong ultima = new AtomicLong();
+    private final ConcurrentSkipListSet<Long> enCurso = new ConcurrentSkipListSet<>();
+    // ReentrantLock en lugar de synchronized: no fija el hilo virtual a su portador
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    public void inicializar() {
+        reiniciarDesdeBase();
+    }
+
+    /**
+     * Vuelve a tomar como última versión la mayor guardada en la base de datos.
+     */
+    public void reiniciarDesdeBase() {
+        long maxima = Math.max(productoRepository.maxVersionCambio(), productoEliminadoRepository.maxVersionCambio());
+        ultima.accumulateAndGet(maxima, Math::max);
+    }
+
+    /**
+     * Asigna una nueva versión. Si hay una transacción activa, la versión queda "en curso"
+     * hasta que la transacción termina (con commit o rollback).
+     */
+    public long siguiente() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return ultima.incrementAndGet();
+        }
+        // Se registra como en curso antes de que la versión sea visible como 'ultima'
+        long version;
+        lock.lock();
+        try {
+            version = ultima.incrementAndGet();
+            enCurso.add(version);
+        } finally {
+            lock.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                enCurso.remove(version);
+            }
+        });
+        return version;
+    }
+
+    /**
+     * Mayor versión tal que todas las menores o iguales ya están confirmadas o descartadas.
+     */
+    public long versionSegura() {
+        lock.lock();
+        try {
+            Long menorEnCurso = enCurso.isEmpty() ? null : enCurso.first();
+            return menorEnCurso != null ? menorEnCurso - 1 : ultima.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
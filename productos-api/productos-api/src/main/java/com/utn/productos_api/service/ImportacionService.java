@@ -0,0 +1,187 @@
+package com.utn.productos_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.dto.ResultadoFilaDTO;
+import com.utn.productos_api.dto.ResultadoImportacionDTO;
+import com.utn.productos_api.event.ProductoEvento;
+import com.utn.productos_api.model.Producto;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de productos.
+ *
+ * Las filas se validan una por una y las válidas se insertan en lotes: cada lote es
+ * una transacción propia y Hibernate agrupa los INSERT en batches JDBC
+ * (ver hibernate.jdbc.batch_size). Un error en un lote no afecta a los anteriores.
+ *
+ * Una línea NDJSON que no se puede leer se informa como fila rechazada y la importación sigue:
+ * para entonces puede haber lotes ya confirmados, y el cliente necesita el resultado de todas las filas.
+ */
+@Slf4j
+@Service
+public class ImportacionService {
+    static final int TAMANIO_LOTE = 500;
+    private static final String ERROR_LOTE = "Ocurrió un error inesperado al guardar el lote. Consulte los logs para más detalles.";
+
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GeneradorVersionCambio generadorVersionCambio;
+    private final ObjectReader lectorProducto;
+
+    public ImportacionService(EntityManager entityManager, Validator validator,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              GeneradorVersionCambio generadorVersionCambio,
+                              ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.generadorVersionCambio = generadorVersionCambio;
+        this.lectorProducto = objectMapper.readerFor(ProductoDTO.class);
+    }
+
+    /**
+     * Importa los productos recibidos, en el orden en que llegan.
+     *
+     * @param productos Filas a importar; se consumen de a una, por lo que puede ser un flujo
+     * @return Resumen con el resultado de cada fila
+     */
+    public ResultadoImportacionDTO importar(Iterator<ProductoDTO> productos) {
+        Importacion importacion = new Importacion();
+        while (productos.hasNext()) {
+            importacion.agregar(productos.next());
+        }
+        return importacion.terminar();
+    }
+
+    /**
+     * Importa un cuerpo NDJSON, un producto por línea, leyéndolo a medida que llega.
+     * Las líneas en blanco se ignoran.
+     *
+     * @param lineas Cuerpo de la petición
+     * @return Resumen con el resultado de cada fila, incluidas las que no se pudieron leer
+     * @throws IOException Si falla la lectura del cuerpo
+     */
+    public ResultadoImportacionDTO importarNdjson(BufferedReader lineas) throws IOException {
+        Importacion importacion = new Importacion();
+        String linea;
+        while ((linea = lineas.readLine()) != null) {
+            if (linea.isBlank()) {
+                continue;
+            }
+            ProductoDTO productoDTO;
+            try {
+                productoDTO = lectorProducto.readValue(linea);
+            } catch (JsonProcessingException e) {
+                importacion.rechazar(errorDeLectura(e));
+                continue;
+            }
+            importacion.agregar(productoDTO);
+        }
+        return importacion.terminar();
+    }
+
+    // No se devuelve el mensaje del parser: describe clases internas y repite la entrada
+    private static String errorDeLectura(JsonProcessingException e) {
+        if (e instanceof JsonMappingException mapeo && !mapeo.getPath().isEmpty()
+                && mapeo.getPath().get(0).getFieldName() != null) {
+            return mapeo.getPath().get(0).getFieldName() + ": valor inválido";
+        }
+        return "La línea no es un JSON válido";
+    }
+
+    private List<String> validar(ProductoDTO productoDTO) {
+        if (productoDTO == null) {
+            return List.of("La fila no contiene un producto");
+        }
+        Set<ConstraintViolation<ProductoDTO>> violaciones = validator.validate(productoDTO);
+        return violaciones.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.toList());
+    }
+
+    private void insertarLote(List<ProductoDTO> lote, List<ResultadoFilaDTO> resultadosLote) {
+        try {
+            List<Producto> insertados = transactionTemplate.execute(status -> {
+                List<Producto> entidades = new ArrayList<>(lote.size());
+                for (ProductoDTO productoDTO : lote) {
+                    Producto producto = productoDTO.toEntity();
+                    producto.setVersionCambio(generadorVersionCambio.siguiente());
+                    entityManager.persist(producto);
+                    entidades.add(producto);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                entidades.forEach(producto ->
+                        eventPublisher.publishEvent(ProductoEvento.creado(ProductoResponseDTO.fromEntity(producto))));
+                return entidades;
+            });
+            for (int i = 0; i < insertados.size(); i++) {
+                resultadosLote.get(i).setId(insertados.get(i).getId());
+                resultadosLote.get(i).setCreado(true);
+            }
+        } catch (RuntimeException e) {
+            // El mensaje de JDBC/Hibernate puede traer SQL, restricciones y valores: queda en el log
+            log.error("Error al guardar un lote de {} productos", lote.size(), e);
+            resultadosLote.forEach(resultado -> resultado.setErrores(List.of(ERROR_LOTE)));
+        }
+        lote.clear();
+        resultadosLote.clear();
+    }
+
+    /**
+     * Estado de una importación en curso: el resultado de cada fila y el lote pendiente de insertar.
+     */
+    private class Importacion {
+        private final List<ResultadoFilaDTO> resultados = new ArrayList<>();
+        private final List<ProductoDTO> lote = new ArrayList<>(TAMANIO_LOTE);
+        private final List<ResultadoFilaDTO> resultadosLote = new ArrayList<>(TAMANIO_LOTE);
+
+        void agregar(ProductoDTO productoDTO) {
+            ResultadoFilaDTO resultado = new ResultadoFilaDTO(resultados.size(), null, false, validar(productoDTO));
+            resultados.add(resultado);
+            if (resultado.getErrores().isEmpty()) {
+                lote.add(productoDTO);
+                resultadosLote.add(resultado);
+            }
+            if (lote.size() == TAMANIO_LOTE) {
+                insertarLote(lote, resultadosLote);
+            }
+        }
+
+        void rechazar(String error) {
+            resultados.add(new ResultadoFilaDTO(resultados.size(), null, false, List.of(error)));
+        }
+
+        ResultadoImportacionDTO terminar() {
+            if (!lote.isEmpty()) {
+                insertarLote(lote, resultadosLote);
+            }
+            int creados = (int) resultados.stream().filter(ResultadoFilaDTO::isCreado).count();
+            return new ResultadoImportacionDTO(resultados.size(), creados, resultados.size() - creados, resultados);
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.BusquedaDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.dto.ResultadoBusquedaDTO;
+import com.utn.productos_api.event.ProductoEvento;
+import com.utn.productos_api.model.Categoria;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre el nombre y la descripción de los productos.
+ *
+ * Los términos se guardan en un diccionario ordenado ({@link TreeMap}), por lo que la
+ * búsqueda por prefijo es un recorrido de rango, como en un trie. Cada término apunta a
+ * una {@link ListaPosteo} de IDs por campo, y los documentos referencian a los términos del
+ * diccionario en lugar de guardar su texto. El índice se construye al arrancar, antes que el
+ * servidor web (en {@link InventarioAgregados#FASE}, por el mismo motivo que los agregados), y se
+ * mantiene con los eventos de producto confirmados.
+ *
+ * Una consulta exige que todos sus términos aparezcan (en el nombre o la descripción);
+ * el último se toma como prefijo para permitir búsqueda mientras se escribe.
+ *
+ * La consulta recorre en orden de ID las listas del término con menos IDs y, para cada candidato,
+ * avanza cursores sobre las listas de los demás términos. Como los empates se resuelven por menor ID,
+ * un candidato que no puede superar al peor de los mejores ya encontrados se descarta sin consultar
+ * el resto, y las listas que no pueden aportar ninguno dejan de recorrerse. Si las listas que harían
+ * falta tienen mapa de bits, los IDs que no están en todas se saltean de a 64. Con un millón de
+ * productos el p99 queda por debajo de los 5 ms (ver {@code IndiceBusquedaBenchmark}).
+ */
+@Slf4j
+@Component
+public class IndiceBusquedaProductos implements SmartLifecycle {
+
+    public static final int LIMITE_POR_DEFECTO = 10;
+    public static final int LIMITE_MAXIMO = 100;
+
+    // Cota de términos que puede expandir un prefijo corto (p. ej. "a"); al alcanzarla, la búsqueda se marca truncada
+    static final int MAXIMO_TERMINOS_POR_PREFIJO = 256;
+
+    private static final int PUNTAJE_NOMBRE_EXACTO = 6;
+    private static final int PUNTAJE_NOMBRE_PREFIJO = 4;
+    private static final int PUNTAJE_DESCRIPCION_EXACTO = 2;
+    private static final int PUNTAJE_DESCRIPCION_PREFIJO = 1;
+
+    // Término del diccionario, con la lista de productos que lo tienen en cada campo
+    private static final class Termino {
+        final String texto;
+        ListaPosteo enNombre;
+        ListaPosteo enDescripcion;
+
+        Termino(String texto) {
+            this.texto = texto;
+        }
+
+        void agregar(long id, boolean nombre) {
+            if (nombre) {
+                if (enNombre == null) {
+                    enNombre = new ListaPosteo();
+                }
+                enNombre.agregar(id);
+            } else {
+                if (enDescripcion == null) {
+                    enDescripcion = new ListaPosteo();
+                }
+                enDescripcion.agregar(id);
+            }
+        }
+
+        void quitar(long id, boolean nombre) {
+            if (nombre && enNombre != null) {
+                enNombre.quitar(id);
+                enNombre = enNombre.estaVacia() ? null : enNombre;
+            } else if (!nombre && enDescripcion != null) {
+                enDescripcion.quitar(id);
+                enDescripcion = enDescripcion.estaVacia() ? null : enDescripcion;
+            }
+        }
+
+        boolean sinPosteos() {
+            return enNombre == null && enDescripcion == null;
+        }
+    }
+
+    private record Documento(String nombre, Categoria categoria, Termino[] terminosNombre,
+                             Termino[] terminosDescripcion) {
+    }
+
+    // Lista de posteo que aporta a un término de la consulta, con su cursor
+    private static final class Fuente {
+        final ListaPosteo posteo;
+        final int puntaje;
+        int posicion;
+
+        Fuente(ListaPosteo posteo, int puntaje) {
+            this.posteo = posteo;
+            this.puntaje = puntaje;
+        }
+
+        long actual() {
+            return posteo.get(posicion);
+        }
+
+        boolean agotada() {
+            return posicion >= posteo.tamanio();
+        }
+
+        // Sin mapa de bits, avanza el cursor hasta el primer ID mayor o igual a 'id'
+        boolean contiene(long id) {
+            if (posteo.tieneMapaDeBits()) {
+                return posteo.contiene(id);
+            }
+            posicion = posteo.buscarDesde(id, posicion);
+            return posicion < posteo.tamanio() && posteo.get(posicion) == id;
+        }
+    }
+
+    // Término de la consulta: las listas de todos los términos del diccionario que abarca
+    private static final class TerminoConsulta {
+        final List<Fuente> fuentes = new ArrayList<>();
+        int puntajeMaximo;
+        // Mayor puntaje entre las listas sin mapa de bits
+        int puntajeSinMapa;
+        long totalIds;
+        boolean truncado;
+
+        void agregar(ListaPosteo posteo, int puntaje) {
+            if (posteo != null) {
+                fuentes.add(new Fuente(posteo, puntaje));
+                puntajeMaximo = Math.max(puntajeMaximo, puntaje);
+                if (!posteo.tieneMapaDeBits()) {
+                    puntajeSinMapa = Math.max(puntajeSinMapa, puntaje);
+                }
+                totalIds += posteo.tamanio();
+            }
+        }
+    }
+
+    // Los mejores resultados hasta el momento, de mayor a menor puntaje y, ante empate, por ID creciente
+    private static final class Mejores {
+        final long[] ids;
+        final int[] puntajes;
+        int tamanio;
+
+        Mejores(int limite) {
+            ids = new long[limite];
+            puntajes = new int[limite];
+        }
+
+        boolean lleno() {
+            return tamanio == ids.length;
+        }
+
+        // Puntaje que hay que superar para entrar; los candidatos llegan por ID creciente y pierden los empates
+        int umbral() {
+            return puntajes[tamanio - 1];
+        }
+
+        void agregar(long id, int puntaje) {
+            int i = lleno() ? tamanio - 1 : tamanio++;
+            while (i > 0 && puntajes[i - 1] < puntaje) {
+                ids[i] = ids[i - 1];
+                puntajes[i] = puntajes[i - 1];
+                i--;
+            }
+            ids[i] = id;
+            puntajes[i] = puntaje;
+        }
+    }
+
+    private final ProductoService productoService;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Termino> diccionario = new TreeMap<>();
+    private TablaPorId<Documento> documentos = new TablaPorId<>();
+    private volatile boolean precargado;
+    private volatile boolean iniciado;
+
+    public IndiceBusquedaProductos(ProductoService productoService) {
+        this.productoService = productoService;
+    }
+
+    @Override
+    public void start() {
+        if (!iniciado) {
+            construir();
+            iniciado = true;
+        }
+    }
+
+    @Override
+    public void stop() {
+        iniciado = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return iniciado;
+    }
+
+    @Override
+    public int getPhase() {
+        return InventarioAgregados.FASE;
+    }
+
+    public void construir() {
+        if (precargado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        productoService.exportarCatalogo(this::indexar);
+        log.info("Índice de búsqueda construido: {} productos, {} términos en {} ms", documentos.tamanio(),
+                diccionario.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoEvento evento) {
+        if (evento.getTipo() == ProductoEvento.Tipo.ELIMINADO) {
+            quitar(evento.getId());
+        } else if (cambioTextoOCategoria(evento.getAnterior(), evento.getActual())) {
+            indexar(evento.getActual());
+        }
+    }
+
+    /**
+     * Indexa un producto leído del snapshot del catálogo al arrancar; con esto
+     * {@link #construir()} ya no recorre la base.
+     */
+    public void precargar(ProductoResponseDTO producto) {
+        precargado = true;
+        indexar(producto);
+    }
+
+    /**
+     * Vacía lo cargado por {@link #precargar(ProductoResponseDTO)} cuando la lectura del snapshot
+     * falla a mitad de camino, para que {@link #construir()} recorra la base.
+     */
+    public void descartarPrecarga() {
+        lock.writeLock().lock();
+        try {
+            diccionario.clear();
+            documentos = new TablaPorId<>();
+            precargado = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexar(ProductoResponseDTO producto) {
+        List<String> nombre = NormalizadorTexto.terminos(producto.getNombre());
+        List<String> descripcion = NormalizadorTexto.terminos(producto.getDescripcion());
+        long id = producto.getId();
+        lock.writeLock().lock();
+        try {
+            quitarSinLock(id);
+            documentos.put(id, new Documento(producto.getNombre(), producto.getCategoria(),
+                    agregarPosteos(nombre, id, true), agregarPosteos(descripcion, id, false)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void quitar(Long id) {
+        lock.writeLock().lock();
+        try {
+            quitarSinLock(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca productos cuyo nombre o descripción contenga todos los términos de la consulta.
+     *
+     * @param consulta Texto buscado; el último término se trata como prefijo
+     * @param categoria Categoría a la que restringir los resultados, opcional
+     * @param limit Cantidad máxima de resultados
+     * @return Resultados ordenados por relevancia y luego por ID, y si el prefijo se truncó
+     */
+    public BusquedaDTO buscar(String consulta, Categoria categoria, int limit) {
+        List<String> terminos = NormalizadorTexto.terminosConsulta(consulta);
+        if (terminos.isEmpty()) {
+            return new BusquedaDTO(List.of(), false);
+        }
+        int tamanio = Math.min(Math.max(limit, 1), LIMITE_MAXIMO);
+
+        lock.readLock().lock();
+        try {
+            List<TerminoConsulta> porTermino = new ArrayList<>(terminos.size());
+            boolean truncada = false;
+            for (int i = 0; i < terminos.size(); i++) {
+                TerminoConsulta termino = expandir(terminos.get(i), i == terminos.size() - 1);
+                truncada |= termino.truncado;
+                if (termino.fuentes.isEmpty()) {
+                    return new BusquedaDTO(List.of(), truncada);
+                }
+                porTermino.add(termino);
+            }
+            // Se recorre el término con menos IDs; los demás se consultan de menor a mayor
+            porTermino.sort(Comparator.comparingLong(termino -> termino.totalIds));
+            return new BusquedaDTO(mejores(porTermino, categoria, tamanio), truncada);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Termino[] agregarPosteos(List<String> terminos, long id, boolean nombre) {
+        Termino[] referencias = new Termino[terminos.size()];
+        for (int i = 0; i < referencias.length; i++) {
+            referencias[i] = diccionario.computeIfAbsent(terminos.get(i), Termino::new);
+            referencias[i].agregar(id, nombre);
+        }
+        return referencias;
+    }
+
+    private void quitarSinLock(long id) {
+        Documento documento = documentos.remove(id);
+        if (documento == null) {
+            return;
+        }
+        quitarPosteos(documento.terminosNombre(), id, true);
+        quitarPosteos(documento.terminosDescripcion(), id, false);
+    }
+
+    private void quitarPosteos(Termino[] terminos, long id, boolean nombre) {
+        for (Termino termino : terminos) {
+            termino.quitar(id, nombre);
+            if (termino.sinPosteos()) {
+                diccionario.remove(termino.texto, termino);
+            }
+        }
+    }
+
+    private TerminoConsulta expandir(String termino, boolean comoPrefijo) {
+        NavigableMap<String, Termino> rango = comoPrefijo
+                ? diccionario.subMap(termino, true, termino + Character.MAX_VALUE, false)
+                : diccionario.subMap(termino, true, termino, true);
+        TerminoConsulta consulta = new TerminoConsulta();
+        Iterator<Termino> iterador = rango.values().iterator();
+        for (int expandidos = 0; iterador.hasNext(); expandidos++) {
+            if (expandidos == MAXIMO_TERMINOS_POR_PREFIJO) {
+                consulta.truncado = true;
+                log.debug("El prefijo '{}' abarca más de {} términos; se ignoran los restantes", termino,
+                        MAXIMO_TERMINOS_POR_PREFIJO);
+                break;
+            }
+            Termino expandido = iterador.next();
+            boolean exacto = expandido.texto.equals(termino);
+            consulta.agregar(expandido.enNombre, exacto ? PUNTAJE_NOMBRE_EXACTO : PUNTAJE_NOMBRE_PREFIJO);
+            consulta.agregar(expandido.enDescripcion,
+                    exacto ? PUNTAJE_DESCRIPCION_EXACTO : PUNTAJE_DESCRIPCION_PREFIJO);
+        }
+        // Las de mayor puntaje primero: la primera lista que contiene al candidato da su puntaje en el término
+        consulta.fuentes.sort(Comparator.comparingInt((Fuente fuente) -> fuente.puntaje).reversed());
+        return consulta;
+    }
+
+    private List<ResultadoBusquedaDTO> mejores(List<TerminoConsulta> terminos, Categoria categoria, int limit) {
+        List<TerminoConsulta> resto = terminos.subList(1, terminos.size());
+        int puntajeGuia = terminos.get(0).puntajeMaximo;
+        int cotaResto = 0;
+        for (TerminoConsulta termino : resto) {
+            cotaResto += termino.puntajeMaximo;
+        }
+
+        // Montículo de las listas del término guía, por ID actual: las recorre todas juntas en orden de ID
+        Fuente[] monticulo = terminos.get(0).fuentes.toArray(Fuente[]::new);
+        int enMonticulo = monticulo.length;
+        apilar(monticulo, enMonticulo);
+
+        Mejores mejores = new Mejores(limit);
+        candidatos:
+        while (enMonticulo > 0) {
+            long id = monticulo[0].actual();
+            int umbral = mejores.lleno() ? mejores.umbral() : 0;
+            long siguiente = siguientePosible(id, terminos, umbral + 1 - puntajeGuia - cotaResto);
+            if (siguiente > id) {
+                int conservadas = 0;
+                for (int i = 0; i < enMonticulo; i++) {
+                    Fuente fuente = monticulo[i];
+                    fuente.posicion = fuente.posteo.buscarDesde(siguiente, fuente.posicion);
+                    if (!fuente.agotada()) {
+                        monticulo[conservadas++] = fuente;
+                    }
+                }
+                enMonticulo = conservadas;
+                apilar(monticulo, enMonticulo);
+                continue;
+            }
+
+            int puntaje = 0;
+            while (enMonticulo > 0 && monticulo[0].actual() == id) {
+                Fuente fuente = monticulo[0];
+                puntaje = Math.max(puntaje, fuente.puntaje);
+                fuente.posicion++;
+                // Una lista cuyos IDs ya no pueden entrar entre los mejores deja de recorrerse
+                if (fuente.agotada() || (mejores.lleno() && fuente.puntaje + cotaResto <= mejores.umbral())) {
+                    monticulo[0] = monticulo[--enMonticulo];
+                }
+                hundir(monticulo, enMonticulo, 0);
+            }
+            if (mejores.lleno() && puntaje + cotaResto <= mejores.umbral()) {
+                continue;
+            }
+
+            int restante = cotaResto;
+            for (TerminoConsulta termino : resto) {
+                restante -= termino.puntajeMaximo;
+                int delTermino = 0;
+                for (Fuente fuente : termino.fuentes) {
+                    // Van de mayor a menor puntaje: si esta lista no alcanza para entrar, las siguientes tampoco
+                    if (mejores.lleno() && puntaje + fuente.puntaje + restante <= mejores.umbral()) {
+                        break;
+                    }
+                    if (fuente.contiene(id)) {
+                        delTermino = fuente.puntaje;
+                        break;
+                    }
+                }
+                if (delTermino == 0) {
+                    continue candidatos;
+                }
+                puntaje += delTermino;
+            }
+            if (categoria != null && documentos.get(id).categoria() != categoria) {
+                continue;
+            }
+            mejores.agregar(id, puntaje);
+        }
+
+        List<ResultadoBusquedaDTO> resultados = new ArrayList<>(mejores.tamanio);
+        for (int i = 0; i < mejores.tamanio; i++) {
+            Documento documento = documentos.get(mejores.ids[i]);
+            resultados.add(new ResultadoBusquedaDTO(mejores.ids[i], documento.nombre(), documento.categoria(),
+                    mejores.puntajes[i]));
+        }
+        return resultados;
+    }
+
+    /**
+     * Menor ID desde {@code id} que está en todos los términos con el puntaje que necesitaría para superar el
+     * umbral, recorriendo de a 64 IDs los mapas de bits; {@link Long#MAX_VALUE} si no queda ninguno. Así las
+     * listas del término guía saltan de una vez los IDs que no pueden entrar. Si alguna lista que habría que
+     * mirar no tiene mapa de bits, devuelve el mismo {@code id}.
+     *
+     * @param faltante Lo que le falta a la suma de los puntajes máximos de los términos para superar el umbral
+     *                 (negativo o cero si la supera); cada término necesita al menos su máximo más esto
+     */
+    private static long siguientePosible(long id, List<TerminoConsulta> terminos, int faltante) {
+        for (TerminoConsulta termino : terminos) {
+            if (termino.puntajeSinMapa >= faltante + termino.puntajeMaximo) {
+                return id;
+            }
+        }
+        long[][][] mapas = new long[terminos.size()][][];
+        int limite = Integer.MAX_VALUE;
+        for (int t = 0; t < mapas.length; t++) {
+            TerminoConsulta termino = terminos.get(t);
+            int necesarias = 0;
+            while (necesarias < termino.fuentes.size()
+                    && termino.fuentes.get(necesarias).puntaje >= faltante + termino.puntajeMaximo) {
+                necesarias++;
+            }
+            mapas[t] = new long[necesarias][];
+            int palabrasDelTermino = 0;
+            for (int f = 0; f < necesarias; f++) {
+                mapas[t][f] = termino.fuentes.get(f).posteo.mapaDeBits();
+                palabrasDelTermino = Math.max(palabrasDelTermino, mapas[t][f].length);
+            }
+            limite = Math.min(limite, palabrasDelTermino);
+        }
+
+        int primera = (int) (id >>> 6);
+        for (int palabra = primera; palabra < limite; palabra++) {
+            long posibles = palabra == primera ? -1L << id : -1L;
+            for (int t = 0; t < mapas.length && posibles != 0; t++) {
+                long delTermino = 0;
+                for (long[] mapa : mapas[t]) {
+                    if (palabra < mapa.length) {
+                        delTermino |= mapa[palabra];
+                    }
+                }
+                posibles &= delTermino;
+            }
+            if (posibles != 0) {
+                return ((long) palabra << 6) + Long.numberOfTrailingZeros(posibles);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static void apilar(Fuente[] monticulo, int tamanio) {
+        for (int i = tamanio / 2 - 1; i >= 0; i--) {
+            hundir(monticulo, tamanio, i);
+        }
+    }
+
+    private static void hundir(Fuente[] monticulo, int tamanio, int i) {
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamanio && monticulo[izquierdo].actual() < monticulo[menor].actual()) {
+                menor = izquierdo;
+            }
+            if (derecho < tamanio && monticulo[derecho].actual() < monticulo[menor].actual()) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            Fuente fuente = monticulo[i];
+            monticulo[i] = monticulo[menor];
+            monticulo[menor] = fuente;
+            i = menor;
+        }
+    }
+
+    private static boolean cambioTextoOCategoria(ProductoResponseDTO anterior, ProductoResponseDTO actual) {
+        return anterior == null
+                || !Objects.equals(anterior.getNombre(), actual.getNombre())
+                || !Objects.equals(anterior.getDescripcion(), actual.getDescripcion())
+                || anterior.getCategoria() != actual.getCategoria();
+    }
+}
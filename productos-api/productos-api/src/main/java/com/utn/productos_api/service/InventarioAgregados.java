@@ -0,0 +1,240 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.AgregadoCategoriaDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.dto.ReconciliacionAgregadosDTO;
+import com.utn.productos_api.event.ProductoEvento;
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.repository.ProductoRepository;
+import com.utn.productos_api.repository.TotalesCategoria;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totales de inventario por categoría mantenidos de forma incremental.
+ *
+ * Se inicializan una vez al arrancar con un GROUP BY y luego cada mutación confirmada
+ * aplica su diferencia sobre contadores {@link LongAdder}/{@link DoubleAdder}, de modo que
+ * leerlos no consulta la base de datos. Un job periódico los compara con la base e informa
+ * la deriva; con escrituras en curso puede haber diferencias transitorias.
+ *
+ * La inicialización corre antes de que arranque el servidor web (ver {@link #FASE}): si corriera
+ * con peticiones en curso, un alta confirmada entre el evento y el GROUP BY se contaría dos veces.
+ * La restauración del snapshot ({@link SnapshotCatalogo#FASE}) corre antes todavía.
+ */
+@Slf4j
+@Component
+public class InventarioAgregados implements SmartLifecycle {
+
+    /**
+     * Fase en la que se calientan las estructuras derivadas del catálogo: antes que la del servidor
+     * web ({@code WebServerStartStopLifecycle}, {@code DEFAULT_PHASE - 2048}).
+     */
+    public static final int FASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    // El valor es una suma de dobles: el error de redondeo crece con el total, así que la tolerancia es
+    // relativa a él, con un mínimo de un centavo para las categorías chicas
+    private static final double TOLERANCIA_VALOR_RELATIVA = 1e-9;
+    private static final double TOLERANCIA_VALOR_MINIMA = 0.01;
+
+    private static final class Contadores {
+        final LongAdder productos = new LongAdder();
+        final LongAdder unidades = new LongAdder();
+        final DoubleAdder valor = new DoubleAdder();
+    }
+
+    private final ProductoRepository productoRepository;
+    private final StockLedger stockLedger;
+    private final Map<Categoria, Contadores> contadores = new EnumMap<>(Categoria.class);
+    private volatile ReconciliacionAgregadosDTO ultimaReconciliacion;
+    private volatile boolean precargado;
+    private volatile boolean iniciado;
+
+    public InventarioAgregados(ProductoRepository productoRepository, StockLedger stockLedger) {
+        this.productoRepository = productoRepository;
+        this.stockLedger = stockLedger;
+        for (Categoria categoria : Categoria.values()) {
+            contadores.put(categoria, new Contadores());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!iniciado) {
+            inicializar();
+            iniciado = true;
+        }
+    }
+
+    @Override
+    public void stop() {
+        iniciado = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return iniciado;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+
+    private void inicializar() {
+        if (precargado) {
+            return;
+        }
+        for (TotalesCategoria totales : productoRepository.totalesPorCategoria()) {
+            if (totales.getCategoria() == null) {
+                continue;
+            }
+            Contadores c = contadores.get(totales.getCategoria());
+            c.productos.add(totales.getProductos());
+            c.unidades.add(totales.getUnidades());
+            c.valor.add(totales.getValor());
+        }
+    }
+
+    /**
+     * Suma un producto leído del snapshot del catálogo al arrancar; con esto
+     * la inicialización ya no consulta la base.
+     */
+    public void precargar(ProductoResponseDTO producto) {
+        precargado = true;
+        aplicar(producto, 1);
+    }
+
+    /**
+     * Pone en cero lo sumado por {@link #precargar(ProductoResponseDTO)} cuando la lectura del
+     * snapshot falla a mitad de camino, para que la inicialización consulte la base.
+     */
+    public void descartarPrecarga() {
+        for (Contadores c : contadores.values()) {
+            c.productos.reset();
+            c.unidades.reset();
+            c.valor.reset();
+        }
+        precargado = false;
+    }
+
+    public long productos(Categoria categoria) {
+        return contadores.get(categoria).productos.sum();
+    }
+
+    public long unidades(Categoria categoria) {
+        return contadores.get(categoria).unidades.sum();
+    }
+
+    public double valorStock(Categoria categoria) {
+        return contadores.get(categoria).valor.sum();
+    }
+
+    public List<AgregadoCategoriaDTO> obtenerTodos() {
+        List<AgregadoCategoriaDTO> agregados = new ArrayList<>(contadores.size());
+        for (Categoria categoria : Categoria.values()) {
+            agregados.add(new AgregadoCategoriaDTO(categoria, productos(categoria), unidades(categoria),
+                    valorStock(categoria)));
+        }
+        return agregados;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoEvento evento) {
+        aplicar(evento.getAnterior(), -1);
+        aplicar(evento.getActual(), 1);
+    }
+
+    /**
+     * Compara los contadores con los totales calculados por la base de datos.
+     * En modo ledger a los totales de la base se les suman los deltas de stock que todavía no se
+     * escribieron, porque los contadores ya los incluyen.
+     *
+     * @return Reporte con la deriva de cada categoría
+     */
+    @Scheduled(fixedDelayString = "${productos.agregados.intervalo-reconciliacion:300000}",
+            initialDelayString = "${productos.agregados.intervalo-reconciliacion:300000}")
+    public ReconciliacionAgregadosDTO reconciliar() {
+        StockLedger.LecturaConPendientes<List<TotalesCategoria>> lectura =
+                stockLedger.leerSinFlush(productoRepository::totalesPorCategoria);
+        Map<Categoria, AgregadoCategoriaDTO> enBase = new EnumMap<>(Categoria.class);
+        for (TotalesCategoria totales : lectura.resultado()) {
+            if (totales.getCategoria() != null) {
+                enBase.put(totales.getCategoria(), new AgregadoCategoriaDTO(totales.getCategoria(),
+                        totales.getProductos(), totales.getUnidades(), totales.getValor()));
+            }
+        }
+        sumarPendientes(enBase, lectura.pendientes());
+
+        List<AgregadoCategoriaDTO> derivas = new ArrayList<>();
+        for (Categoria categoria : Categoria.values()) {
+            AgregadoCategoriaDTO base = enBase.getOrDefault(categoria, new AgregadoCategoriaDTO(categoria, 0, 0, 0));
+            AgregadoCategoriaDTO deriva = new AgregadoCategoriaDTO(categoria,
+                    base.getProductos() - productos(categoria),
+                    base.getUnidades() - unidades(categoria),
+                    base.getValorStock() - valorStock(categoria));
+            if (deriva.getProductos() != 0 || deriva.getUnidades() != 0
+                    || Math.abs(deriva.getValorStock()) > toleranciaValor(base.getValorStock(), valorStock(categoria))) {
+                derivas.add(deriva);
+            }
+        }
+
+        ReconciliacionAgregadosDTO reporte = new ReconciliacionAgregadosDTO(LocalDateTime.now(), derivas.isEmpty(), derivas);
+        if (!derivas.isEmpty()) {
+            log.warn("Deriva en los agregados de inventario: {}", derivas);
+        }
+        ultimaReconciliacion = reporte;
+        return reporte;
+    }
+
+    static double toleranciaValor(double enBase, double enMemoria) {
+        return Math.max(TOLERANCIA_VALOR_MINIMA,
+                TOLERANCIA_VALOR_RELATIVA * Math.max(Math.abs(enBase), Math.abs(enMemoria)));
+    }
+
+    public ReconciliacionAgregadosDTO getUltimaReconciliacion() {
+        return ultimaReconciliacion;
+    }
+
+    private void sumarPendientes(Map<Categoria, AgregadoCategoriaDTO> enBase, Map<Long, Integer> pendientes) {
+        Iterator<Long> ids = pendientes.keySet().iterator();
+        while (ids.hasNext()) {
+            List<Long> lote = new ArrayList<>(ProductoService.LIMITE_PAGINA_MAXIMO);
+            while (ids.hasNext() && lote.size() < ProductoService.LIMITE_PAGINA_MAXIMO) {
+                lote.add(ids.next());
+            }
+            for (ProductoResponseDTO producto : productoRepository.findRespuestasByIdIn(lote)) {
+                if (producto.getCategoria() == null) {
+                    continue;
+                }
+                int delta = pendientes.get(producto.getId());
+                AgregadoCategoriaDTO base = enBase.computeIfAbsent(producto.getCategoria(),
+                        categoria -> new AgregadoCategoriaDTO(categoria, 0, 0, 0));
+                base.setUnidades(base.getUnidades() + delta);
+                base.setValorStock(base.getValorStock() + delta * producto.getPrecio());
+            }
+        }
+    }
+
+    private void aplicar(ProductoResponseDTO producto, int signo) {
+        if (producto == null || producto.getCategoria() == null) {
+            return;
+        }
+        Contadores c = contadores.get(producto.getCategoria());
+        c.productos.add(signo);
+        c.unidades.add((long) signo * producto.getStock());
+        c.valor.add(signo * producto.getPrecio() * producto.getStock());
+    }
+}
@@ -0,0 +1,118 @@
+package com.utn.productos_api.service;
+
+import java.util.Arrays;
+
+/**
+ * Lista de IDs de productos ordenada, guardada en un {@code long[]} sin boxing.
+ * Los IDs nuevos suelen ser mayores que los existentes, así que agregar es casi siempre un append.
+ *
+ * Cuando la lista es densa (al menos un ID de cada 64 hasta el mayor) mantiene además un mapa de bits,
+ * que ocupa como mucho lo mismo que el arreglo y responde {@link #contiene(long)} con un acceso.
+ */
+final class ListaPosteo {
+
+    private long[] ids = new long[2];
+    private int tamanio;
+    private long[] bits;
+
+    void agregar(long id) {
+        int posicion = Arrays.binarySearch(ids, 0, tamanio, id);
+        if (posicion >= 0) {
+            return;
+        }
+        int insercion = -posicion - 1;
+        if (tamanio == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+        System.arraycopy(ids, insercion, ids, insercion + 1, tamanio - insercion);
+        ids[insercion] = id;
+        tamanio++;
+        if (bits != null) {
+            marcar(id);
+        } else if (esDensa()) {
+            bits = new long[0];
+            for (int i = 0; i < tamanio; i++) {
+                marcar(ids[i]);
+            }
+        }
+    }
+
+    void quitar(long id) {
+        int posicion = Arrays.binarySearch(ids, 0, tamanio, id);
+        if (posicion < 0) {
+            return;
+        }
+        System.arraycopy(ids, posicion + 1, ids, posicion, tamanio - posicion - 1);
+        tamanio--;
+        if (bits != null) {
+            bits[(int) (id >>> 6)] &= ~(1L << id);
+            // Margen de la mitad para no armar y descartar el mapa en cada alta y baja
+            if (tamanio * 128L < ultimo()) {
+                bits = null;
+            }
+        }
+    }
+
+    boolean tieneMapaDeBits() {
+        return bits != null;
+    }
+
+    // Mapa de bits (la palabra i tiene los IDs de 64 * i a 64 * i + 63), o null si la lista no es densa.
+    // Es el arreglo interno: quien lo lea no debe modificarlo ni guardarlo fuera del lock del índice.
+    long[] mapaDeBits() {
+        return bits;
+    }
+
+    boolean contiene(long id) {
+        if (bits != null) {
+            int palabra = (int) (id >>> 6);
+            return palabra < bits.length && (bits[palabra] & (1L << id)) != 0;
+        }
+        return Arrays.binarySearch(ids, 0, tamanio, id) >= 0;
+    }
+
+    /**
+     * Primera posición, a partir de {@code desde}, cuyo ID es mayor o igual a {@code id};
+     * {@link #tamanio()} si no hay ninguna. Avanza con saltos que se duplican y termina con una
+     * búsqueda binaria (galloping): recorrer la lista salteando IDs cuesta según los saltos, no según su largo.
+     */
+    int buscarDesde(long id, int desde) {
+        int paso = 1;
+        int hasta = desde;
+        while (hasta < tamanio && ids[hasta] < id) {
+            desde = hasta + 1;
+            hasta += paso;
+            paso <<= 1;
+        }
+        int posicion = Arrays.binarySearch(ids, desde, Math.min(hasta, tamanio), id);
+        return posicion >= 0 ? posicion : -posicion - 1;
+    }
+
+    boolean estaVacia() {
+        return tamanio == 0;
+    }
+
+    int tamanio() {
+        return tamanio;
+    }
+
+    long get(int indice) {
+        return ids[indice];
+    }
+
+    private long ultimo() {
+        return tamanio == 0 ? 0 : ids[tamanio - 1];
+    }
+
+    private boolean esDensa() {
+        return tamanio * 64L >= ultimo();
+    }
+
+    private void marcar(long id) {
+        int palabra = (int) (id >>> 6);
+        if (palabra >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(palabra + 1, bits.length + (bits.length >> 1)));
+        }
+        bits[palabra] |= 1L << id;
+    }
+}
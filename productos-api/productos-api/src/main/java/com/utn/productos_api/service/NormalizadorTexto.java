@@ -0,0 +1,57 @@
+package com.utn.productos_api.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Convierte texto en español a términos de búsqueda: minúsculas, sin acentos
+ * ni diéresis, separado en palabras y sin las palabras vacías más comunes.
+ */
+final class NormalizadorTexto {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "sin", "su", "un", "una", "y");
+
+    private NormalizadorTexto() {
+    }
+
+    static String normalizar(String texto) {
+        String sinAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinAcentos.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> terminos(String texto) {
+        return terminos(texto, false);
+    }
+
+    /**
+     * Términos de una consulta: como {@link #terminos(String)}, pero la última palabra se conserva
+     * aunque sea vacía, porque es el prefijo que se está escribiendo ("la" puede ser el comienzo de "lámpara").
+     */
+    static List<String> terminosConsulta(String texto) {
+        return terminos(texto, true);
+    }
+
+    private static List<String> terminos(String texto, boolean conservarUltima) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return terminos;
+        }
+        String[] palabras = SEPARADORES.split(normalizar(texto));
+        for (int i = 0; i < palabras.length; i++) {
+            String palabra = palabras[i];
+            boolean ultima = conservarUltima && i == palabras.length - 1;
+            if (!palabra.isEmpty() && (ultima || !PALABRAS_VACIAS.contains(palabra))) {
+                terminos.add(palabra);
+            }
+        }
+        return terminos;
+    }
+}
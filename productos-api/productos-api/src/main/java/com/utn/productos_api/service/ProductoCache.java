@@ -0,0 +1,239 @@
+package com.utn.productos_api.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.utn.productos_api.dto.EstadisticasCacheDTO;
+import com.utn.productos_api.dto.PaginaDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.event.ProductoEvento;
+import com.utn.productos_api.model.Categoria;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache de lectura (read-through) delante de las consultas por ID y por categoría.
+ *
+ * Las entradas se limitan por cantidad y por tiempo de vida. Las cargas concurrentes
+ * de una misma clave se resuelven con una única consulta a la base de datos, y las
+ * entradas afectadas se invalidan cuando se confirma cada mutación.
+ *
+ * Las caches son asíncronas ({@link AsyncCache}) para que la consulta no corra dentro del
+ * {@code compute} del mapa: ahí se ejecutaría con el monitor de un {@code synchronized} tomado y,
+ * con hilos virtuales, fijaría el hilo a su carrier durante todo el I/O. En su lugar se publica un
+ * futuro vacío, el hilo que lo publicó consulta la base y lo completa, y los demás lo esperan.
+ *
+ * Las páginas por categoría se guardan bajo la versión de datos de su categoría, que avanza con
+ * cada mutación confirmada. Una carga que empezó antes del commit (y pudo leer la página vieja)
+ * termina guardándola bajo la versión anterior, que ya nadie pide; las páginas de versiones
+ * anteriores se quitan solo para liberar lugar.
+ *
+ * También lleva las versiones con las que se arman los ETag: la versión de cambio de cada
+ * producto (cacheada igual que los productos) y un contador por categoría que avanza con cada
+ * mutación confirmada. Se actualizan en el mismo listener, después de los datos, y el controlador
+ * lee la versión antes que los datos:
+ * - Una página pedida con la versión de ETag nueva usa la versión de datos nueva, así que solo
+ *   puede venir de una carga que empezó después del commit.
+ * - Invalidar un producto descarta también su carga en curso, que le llega a quien la pidió pero
+ *   no queda cacheada; la siguiente lectura, ya con la versión nueva, consulta la base.
+ */
+@Component
+public class ProductoCache {
+
+    record ClavePaginaCategoria(Categoria categoria, long version, long inicio, int limite) {
+    }
+
+    private final AsyncCache<Long, ProductoResponseDTO> porId;
+    private final AsyncCache<ClavePaginaCategoria, PaginaDTO<ProductoResponseDTO>> paginasPorCategoria;
+    private final AsyncCache<Long, Long> versionPorId;
+
+    // Los contadores viven en memoria: la época distingue las versiones de cada arranque
+    private final long epoca = System.currentTimeMillis();
+    private final Map<Categoria, AtomicLong> versionPorCategoria = new EnumMap<>(Categoria.class);
+    private final Map<Categoria, AtomicLong> versionDatosPorCategoria = new EnumMap<>(Categoria.class);
+
+    private final StockLedger stockLedger;
+
+    public ProductoCache(@Value("${productos.cache.maximo-entradas:10000}") long maximoEntradas,
+                         @Value("${productos.cache.ttl:10m}") Duration ttl,
+                         StockLedger stockLedger,
+                         MeterRegistry meterRegistry) {
+        this.stockLedger = stockLedger;
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(maximoEntradas)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.paginasPorCategoria = Caffeine.newBuilder()
+                .maximumSize(Math.max(maximoEntradas / 10, 100))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.versionPorId = Caffeine.newBuilder()
+                .maximumSize(maximoEntradas)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        for (Categoria categoria : Categoria.values()) {
+            versionPorCategoria.put(categoria, new AtomicLong());
+            versionDatosPorCategoria.put(categoria, new AtomicLong());
+        }
+        // Aciertos, fallos, cargas y desalojos de cada cache (cache.gets, cache.evictions, ...)
+        CaffeineCacheMetrics.monitor(meterRegistry, porId, "productos.porId");
+        CaffeineCacheMetrics.monitor(meterRegistry, paginasPorCategoria, "productos.paginasPorCategoria");
+    }
+
+    public ProductoResponseDTO obtenerPorId(Long id, Function<Long, ProductoResponseDTO> cargador) {
+        return cargarFueraDelMapa(porId, id, cargador);
+    }
+
+    /**
+     * Devuelve solo los productos que ya están en cache, sin cargar los faltantes.
+     */
+    public Map<Long, ProductoResponseDTO> obtenerPresentes(Collection<Long> ids) {
+        return porId.synchronous().getAllPresent(ids);
+    }
+
+    public PaginaDTO<ProductoResponseDTO> obtenerPaginaPorCategoria(Categoria categoria, long inicio, int limite,
+                                                                    Supplier<PaginaDTO<ProductoResponseDTO>> cargador) {
+        long version = versionDatosPorCategoria.get(categoria).get();
+        return cargarFueraDelMapa(paginasPorCategoria, new ClavePaginaCategoria(categoria, version, inicio, limite),
+                clave -> cargador.get());
+    }
+
+    /**
+     * Versión actual de un producto para su ETag, o {@code null} si no existe.
+     * En modo ledger incluye el stock en memoria, que cambia sin cambiar la versión de la base de datos.
+     *
+     * @param cargador Lee la versión de cambio de la base de datos; devuelve {@code null} si el producto no existe
+     */
+    public String versionProducto(Long id, Function<Long, Long> cargador) {
+        Long version = cargarFueraDelMapa(versionPorId, id, cargador);
+        return version != null ? versionProducto(id, version) : null;
+    }
+
+    /**
+     * Versión de un producto para su ETag, a partir de su versión de cambio.
+     */
+    public String versionProducto(Long id, long versionCambio) {
+        Integer stock = stockLedger.isHabilitado() ? stockLedger.stockActual(id) : null;
+        return stock == null ? id + "-" + versionCambio : id + "-" + versionCambio + "-" + stock;
+    }
+
+    /**
+     * Versión actual de los listados de una categoría para su ETag.
+     */
+    public String versionCategoria(Categoria categoria) {
+        return epoca + "-" + versionPorCategoria.get(categoria).get();
+    }
+
+    public Map<String, EstadisticasCacheDTO> estadisticas() {
+        Map<String, EstadisticasCacheDTO> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("porId", aDTO(porId.synchronous().stats(), porId.synchronous().estimatedSize()));
+        estadisticas.put("paginasPorCategoria", aDTO(paginasPorCategoria.synchronous().stats(),
+                paginasPorCategoria.synchronous().estimatedSize()));
+        return estadisticas;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoEvento evento) {
+        switch (evento.getTipo()) {
+            case CREADO -> invalidarCategoria(evento.getActual().getCategoria());
+            case ACTUALIZADO -> {
+                if (soloCambioStockEnLedger(evento)) {
+                    // El stock de este producto se lee del ledger; lo cacheado sigue siendo válido,
+                    // pero los listados de la categoría muestran el stock nuevo
+                    avanzarVersion(evento.getActual().getCategoria());
+                    return;
+                }
+                // Se invalida en lugar de reemplazar: los eventos de transacciones concurrentes
+                // pueden llegar en otro orden que sus commits y dejarían un valor viejo
+                porId.synchronous().invalidate(evento.getId());
+                versionPorId.synchronous().invalidate(evento.getId());
+                invalidarCategoria(evento.getAnterior().getCategoria());
+                invalidarCategoria(evento.getActual().getCategoria());
+            }
+            case ELIMINADO -> {
+                porId.synchronous().invalidate(evento.getId());
+                versionPorId.synchronous().invalidate(evento.getId());
+                invalidarCategoria(evento.getAnterior().getCategoria());
+            }
+        }
+    }
+
+    private boolean soloCambioStockEnLedger(ProductoEvento evento) {
+        ProductoResponseDTO anterior = evento.getAnterior();
+        ProductoResponseDTO actual = evento.getActual();
+        return stockLedger.stockActual(evento.getId()) != null
+                && conStock(anterior, actual.getStock()).equals(actual);
+    }
+
+    private static ProductoResponseDTO conStock(ProductoResponseDTO producto, int stock) {
+        return new ProductoResponseDTO(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), stock, producto.getCategoria());
+    }
+
+    private void invalidarCategoria(Categoria categoria) {
+        if (categoria == null) {
+            return;
+        }
+        // Primero la versión de datos y después la del ETag: quien lea la del ETag nueva ya pide páginas nuevas
+        long anterior = versionDatosPorCategoria.get(categoria).getAndIncrement();
+        // Las páginas de versiones anteriores ya no se piden; se quitan solo para liberar lugar
+        paginasPorCategoria.asMap().keySet()
+                .removeIf(clave -> clave.categoria() == categoria && clave.version() <= anterior);
+        avanzarVersion(categoria);
+    }
+
+    private void avanzarVersion(Categoria categoria) {
+        if (categoria != null) {
+            versionPorCategoria.get(categoria).incrementAndGet();
+        }
+    }
+
+    /**
+     * Devuelve el valor cacheado o lo carga en el hilo que llama, fuera del {@code compute} del mapa.
+     * Las llamadas concurrentes por la misma clave esperan el futuro de la primera (sin fijar el hilo
+     * virtual); si la carga falla o devuelve {@code null}, Caffeine quita la entrada y no queda cacheada.
+     */
+    private static <K, V> V cargarFueraDelMapa(AsyncCache<K, V> cache, K clave, Function<K, V> cargador) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> futura = cache.get(clave, (k, executor) -> propia);
+        if (futura != propia) {
+            try {
+                return futura.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+        }
+        try {
+            V valor = cargador.apply(clave);
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static EstadisticasCacheDTO aDTO(CacheStats stats, long tamanio) {
+        return new EstadisticasCacheDTO(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.hitRate(), tamanio);
+    }
+}
@@ -1,35 +1,72 @@
 package com.utn.productos_api.service;
 
 import com.utn.productos_api.dto.ActualizarStockDTO;
+import com.utn.productos_api.dto.PaginaDTO;
 import com.utn.productos_api.dto.ProductoDTO;
 import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.dto.ResultadoMultiGetDTO;
+import com.utn.productos_api.event.ProductoEvento;
+import com.utn.productos_api.exception.ParametroInvalidoException;
+import com.utn.productos_api.exception.PrecondicionFallidaException;
 import com.utn.productos_api.exception.ProductoNotFoundException; // Importar la excepción
 import com.utn.productos_api.exception.StockInsuficienteException; // Importar la excepción (si se implementa)
 import com.utn.productos_api.model.Categoria; // Asumiendo que Categoria es una clase/enum
 import com.utn.productos_api.model.Producto;
+import com.utn.productos_api.model.ProductoEliminado;
+import com.utn.productos_api.repository.ProductoEliminadoRepository;
 import com.utn.productos_api.repository.ProductoRepository;
+import com.utn.productos_api.repository.ProductoSpecifications;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
+@Timed("productos.servicio")
 public class ProductoService {
+    public static final int LIMITE_PAGINA_POR_DEFECTO = 50;
+    public static final int LIMITE_PAGINA_MAXIMO = 500;
+
+    private static final Set<String> CAMPOS_ORDENABLES = Set.of("id", "nombre", "precio", "stock");
+
     private final ProductoRepository productoRepository;
+    private final ProductoCache productoCache;
+    private final StockLedger stockLedger;
+    private final GeneradorVersionCambio generadorVersionCambio;
+    private final ProductoEliminadoRepository productoEliminadoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ProductoResponseDTO crearProducto(ProductoDTO productoDTO) {
         // Convertir DTO a entidad usando el método del DTO
         Producto producto = productoDTO.toEntity();
+        producto.setVersionCambio(generadorVersionCambio.siguiente());
 
         // Guardar en base de datos
         Producto productoGuardado = productoRepository.save(producto);
 
         // Convertir entidad a DTO de respuesta
-        return ProductoResponseDTO.fromEntity(productoGuardado);
+        ProductoResponseDTO respuesta = ProductoResponseDTO.fromEntity(productoGuardado);
+        eventPublisher.publishEvent(ProductoEvento.creado(respuesta));
+        return respuesta;
     }
 
     /**
@@ -39,24 +76,181 @@ public class ProductoService {
      */
     @Transactional(readOnly = true)
     public List<ProductoResponseDTO> obtenerTodos() {
-        return productoRepository.findAll().stream()
-                .map(ProductoResponseDTO::fromEntity)
+        return productoRepository.findAllRespuestas();
+    }
+
+    /**
+     * Obtiene una página de productos usando paginación por cursor (keyset) sobre el ID.
+     * El costo de cada página es independiente del tamaño total del catálogo.
+     *
+     * @param after ID a partir del cual continuar (exclusivo), puede ser nulo
+     * @param cursor Token opaco de continuación devuelto por la página anterior, puede ser nulo
+     * @param limit Cantidad máxima de productos a devolver
+     * @return Página de DTOs de productos
+     * @throws ParametroInvalidoException Si el cursor no es válido
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<ProductoResponseDTO> obtenerPagina(Long after, String cursor, int limit) {
+        int tamanio = normalizarLimite(limit);
+        List<ProductoResponseDTO> productos = productoRepository.findPaginaDesde(
+                resolverInicio(after, cursor), Limit.of(tamanio + 1));
+        return aplicarLedger(armarPagina(productos, tamanio));
+    }
+
+    /**
+     * Obtiene una página de productos de una categoría usando paginación por cursor (keyset).
+     *
+     * @param categoria Categoría por la cual filtrar
+     * @param after ID a partir del cual continuar (exclusivo), puede ser nulo
+     * @param cursor Token opaco de continuación devuelto por la página anterior, puede ser nulo
+     * @param limit Cantidad máxima de productos a devolver
+     * @return Página de DTOs de productos de la categoría especificada
+     * @throws ParametroInvalidoException Si el cursor no es válido
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public PaginaDTO<ProductoResponseDTO> obtenerPaginaPorCategoria(Categoria categoria, Long after,
+                                                                    String cursor, int limit) {
+        int tamanio = normalizarLimite(limit);
+        long inicio = resolverInicio(after, cursor);
+        return aplicarLedger(productoCache.obtenerPaginaPorCategoria(categoria, inicio, tamanio, () -> armarPagina(
+                productoRepository.findPaginaPorCategoriaDesde(categoria, inicio, Limit.of(tamanio + 1)),
+                tamanio)));
+    }
+
+    /**
+     * Recorre todo el catálogo con un cursor de base de datos y entrega cada producto al consumidor.
+     * Las filas se proyectan directo a DTO (sin entidades administradas),
+     * por lo que la memoria usada no depende de la cantidad de filas.
+     * En modo ledger cada producto lleva el stock en memoria.
+     *
+     * @param consumidor Receptor de cada producto, en orden de ID
+     */
+    @Transactional(readOnly = true)
+    public void exportarCatalogo(Consumer<ProductoResponseDTO> consumidor) {
+        try (Stream<ProductoResponseDTO> productos = productoRepository.streamRespuestas()) {
+            productos.map(this::aplicarLedger).forEach(consumidor);
+        }
+    }
+
+    /**
+     * Filtra y ordena productos combinando criterios opcionales en una única consulta SQL,
+     * proyectada directamente a DTO.
+     *
+     * En modo ledger los productos llevan el stock en memoria, pero la consulta filtra y ordena por
+     * el stock ya escrito en la base, que va hasta un intervalo de flush atrás: se descartan los que
+     * ya no cumplen {@code maxStock}, y los que recién pasaron a cumplirlo aparecen después del flush.
+     *
+     * @param categoria Categoría exacta, opcional
+     * @param minPrecio Precio mínimo (inclusive), opcional
+     * @param maxPrecio Precio máximo (inclusive), opcional
+     * @param maxStock Stock máximo (inclusive), opcional; útil para detectar stock bajo
+     * @param nombre Texto contenido en el nombre (sin distinguir mayúsculas), opcional
+     * @param orden Orden pedido; solo se admiten id, nombre, precio y stock
+     * @param limit Cantidad máxima de productos a devolver
+     * @return Lista de DTOs de los productos que cumplen todos los criterios
+     * @throws ParametroInvalidoException Si el orden o el rango de precios no es válido
+     */
+    @Transactional(readOnly = true)
+    public List<ProductoResponseDTO> filtrar(Categoria categoria, Double minPrecio, Double maxPrecio,
+                                             Integer maxStock, String nombre, Sort orden, int limit) {
+        if (minPrecio != null && maxPrecio != null && minPrecio > maxPrecio) {
+            throw new ParametroInvalidoException("minPrecio no puede ser mayor que maxPrecio");
+        }
+        for (Sort.Order o : orden) {
+            if (!CAMPOS_ORDENABLES.contains(o.getProperty())) {
+                throw new ParametroInvalidoException("No se puede ordenar por '" + o.getProperty() + "'");
+            }
+        }
+
+        Specification<Producto> filtro = Specification.where(ProductoSpecifications.conCategoria(categoria))
+                .and(ProductoSpecifications.precioDesde(minPrecio))
+                .and(ProductoSpecifications.precioHasta(maxPrecio))
+                .and(ProductoSpecifications.stockHasta(maxStock))
+                .and(ProductoSpecifications.nombreContiene(nombre));
+        // El ID desempata para que el orden sea estable entre llamadas
+        Sort ordenEstable = orden.and(Sort.by("id"));
+        int tamanio = normalizarLimite(limit);
+
+        return productoRepository.filtrarRespuestas(filtro, ordenEstable, tamanio).stream()
+                .map(this::aplicarLedger)
+                .filter(producto -> maxStock == null || producto.getStock() <= maxStock)
                 .collect(Collectors.toList());
     }
 
     /**
      * Busca un producto por su ID.
+     * Las lecturas pasan por {@link ProductoCache}; solo los fallos consultan la base de datos,
+     * por eso no se abre una transacción (ni se toma una conexión) cuando hay acierto.
      *
      * @param id Identificador del producto
      * @return DTO con los datos del producto
      * @throws ProductoNotFoundException Si el producto no existe
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductoResponseDTO obtenerPorId(Long id) {
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new ProductoNotFoundException(id));
+        return aplicarLedger(productoCache.obtenerPorId(id, clave -> {
+            return productoRepository.findRespuestaById(clave)
+                    .orElseThrow(() -> new ProductoNotFoundException(clave));
+        }));
+    }
 
-        return ProductoResponseDTO.fromEntity(producto);
+    /**
+     * Versión actual de un producto, para armar su ETag sin cargar ni serializar el producto.
+     * Se resuelve desde {@link ProductoCache}; ante un fallo se lee solo la versión de cambio.
+     *
+     * @param id Identificador del producto
+     * @return Versión del producto, o {@code null} si no existe
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public String versionProducto(Long id) {
+        return productoCache.versionProducto(id, clave -> productoRepository.findVersionCambioById(clave).orElse(null));
+    }
+
+    /**
+     * Versión actual de los listados de una categoría, para armar su ETag.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public String versionCategoria(Categoria categoria) {
+        return productoCache.versionCategoria(categoria);
+    }
+
+    /**
+     * Busca varios productos por ID en una sola consulta.
+     * Primero se consulta la cache; los IDs que no están se resuelven con un único
+     * consulta IN. Los resultados cargados no se agregan a la cache
+     * porque una carga masiva no se puede coordinar con las invalidaciones concurrentes.
+     *
+     * @param ids IDs a buscar (los repetidos se ignoran)
+     * @return Productos encontrados en el orden pedido, y los IDs que no existen
+     * @throws ParametroInvalidoException Si se piden más IDs que el máximo permitido
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ResultadoMultiGetDTO obtenerVarios(List<Long> ids) {
+        Set<Long> pedidos = new LinkedHashSet<>(ids);
+        if (pedidos.size() > LIMITE_PAGINA_MAXIMO) {
+            throw new ParametroInvalidoException("Se pueden pedir como máximo " + LIMITE_PAGINA_MAXIMO + " IDs");
+        }
+
+        Map<Long, ProductoResponseDTO> encontrados = new HashMap<>(productoCache.obtenerPresentes(pedidos));
+        List<Long> sinCache = pedidos.stream()
+                .filter(id -> !encontrados.containsKey(id))
+                .collect(Collectors.toList());
+        if (!sinCache.isEmpty()) {
+            productoRepository.findRespuestasByIdIn(sinCache)
+                    .forEach(producto -> encontrados.put(producto.getId(), producto));
+        }
+
+        List<ProductoResponseDTO> productos = new ArrayList<>(encontrados.size());
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : pedidos) {
+            ProductoResponseDTO producto = encontrados.get(id);
+            if (producto != null) {
+                productos.add(aplicarLedger(producto));
+            } else {
+                faltantes.add(id);
+            }
+        }
+        return new ResultadoMultiGetDTO(productos, faltantes);
     }
 
     /**
@@ -67,9 +261,7 @@ public class ProductoService {
      */
     @Transactional(readOnly = true)
     public List<ProductoResponseDTO> obtenerPorCategoria(Categoria categoria) {
-        return productoRepository.findByCategoria(categoria).stream()
-                .map(ProductoResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+        return productoRepository.findRespuestasByCategoria(categoria);
     }
 
     /**
@@ -81,21 +273,52 @@ public class ProductoService {
      * @throws ProductoNotFoundException Si el producto no existe
      */
     public ProductoResponseDTO actualizarProducto(Long id, ProductoDTO productoDTO) {
-        // Verificar que el producto existe
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new ProductoNotFoundException(id));
+        return actualizarProducto(id, productoDTO, null);
+    }
+
+    /**
+     * Actualiza completamente un producto existente (operación PUT), solo si su versión
+     * actual es alguna de las esperadas (If-Match).
+     *
+     * @param id ID del producto a actualizar
+     * @param productoDTO DTO con los nuevos datos del producto
+     * @param versionesEsperadas Versiones aceptadas (ver {@link #versionProducto(Long)}); nulo para no verificar
+     * @return DTO de respuesta con el producto actualizado
+     * @throws ProductoNotFoundException Si el producto no existe
+     * @throws PrecondicionFallidaException Si la versión actual no es ninguna de las esperadas
+     */
+    public ProductoResponseDTO actualizarProducto(Long id, ProductoDTO productoDTO, Collection<String> versionesEsperadas) {
+        // Verificar que el producto existe (y que no cambió, si se pidió)
+        Producto producto = buscarParaActualizar(id, versionesEsperadas);
+
+        ProductoResponseDTO anterior = aplicarLedger(ProductoResponseDTO.fromEntity(producto));
+        int stockConfirmado = producto.getStock();
 
         // Actualizar todos los campos usando el método del DTO
         productoDTO.updateEntity(producto);
 
+        // En modo ledger el stock se ajusta en memoria y se escribe con el próximo flush
+        if (stockLedger.isHabilitado()) {
+            producto.setStock(stockConfirmado);
+        }
+        producto.setVersionCambio(generadorVersionCambio.siguiente());
+
         // Guardar cambios
         Producto productoActualizado = productoRepository.save(producto);
 
-        return ProductoResponseDTO.fromEntity(productoActualizado);
+        ProductoResponseDTO respuesta = ProductoResponseDTO.fromEntity(productoActualizado);
+        if (stockLedger.isHabilitado()) {
+            // El ledger no se deshace con un rollback: el stock nuevo se fija cuando confirma la transacción
+            stockLedger.fijarAlConfirmar(id, productoDTO.getStock());
+            respuesta = conStock(respuesta, productoDTO.getStock());
+        }
+        eventPublisher.publishEvent(ProductoEvento.actualizado(anterior, respuesta));
+        return respuesta;
     }
 
     /**
      * Actualiza solo el stock de un producto (operación PATCH).
+     * En modo ledger el cambio se aplica en memoria, sin esperar a la base de datos.
      *
      * @param id ID del producto
      * @param nuevoStock Nuevo valor de stock
@@ -103,17 +326,96 @@ public class ProductoService {
      * @throws ProductoNotFoundException Si el producto no existe
      */
     public ProductoResponseDTO actualizarStock(Long id, Integer nuevoStock) {
-        // Verificar que el producto existe
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new ProductoNotFoundException(id));
+        return actualizarStock(id, nuevoStock, null);
+    }
+
+    /**
+     * Actualiza solo el stock de un producto (operación PATCH), solo si su versión actual
+     * es alguna de las esperadas (If-Match).
+     * En modo ledger la verificación bloquea la fila, lo que ordena las escrituras condicionales
+     * entre sí, pero no los ajustes de stock sin condición, que se aplican en memoria.
+     *
+     * @param id ID del producto
+     * @param nuevoStock Nuevo valor de stock
+     * @param versionesEsperadas Versiones aceptadas (ver {@link #versionProducto(Long)}); nulo para no verificar
+     * @return DTO de respuesta con el producto actualizado
+     * @throws ProductoNotFoundException Si el producto no existe
+     * @throws PrecondicionFallidaException Si la versión actual no es ninguna de las esperadas
+     */
+    public ProductoResponseDTO actualizarStock(Long id, Integer nuevoStock, Collection<String> versionesEsperadas) {
+        if (stockLedger.isHabilitado()) {
+            if (versionesEsperadas != null) {
+                buscarParaActualizar(id, versionesEsperadas);
+            }
+            return publicarAjusteLedger(id, stockLedger.fijar(id, nuevoStock), nuevoStock);
+        }
+
+        // Verificar que el producto existe (y que no cambió, si se pidió)
+        Producto producto = buscarParaActualizar(id, versionesEsperadas);
+
+        ProductoResponseDTO anterior = ProductoResponseDTO.fromEntity(producto);
 
         // Actualizar solo el stock
         producto.setStock(nuevoStock);
+        producto.setVersionCambio(generadorVersionCambio.siguiente());
 
         // Guardar cambios
         Producto productoActualizado = productoRepository.save(producto);
 
-        return ProductoResponseDTO.fromEntity(productoActualizado);
+        ProductoResponseDTO respuesta = ProductoResponseDTO.fromEntity(productoActualizado);
+        eventPublisher.publishEvent(ProductoEvento.actualizado(anterior, respuesta));
+        return respuesta;
+    }
+
+    /**
+     * Descuenta (reserva) stock de un producto de forma atómica.
+     * Se ejecuta como un único UPDATE condicional, por lo que es seguro ante
+     * peticiones concurrentes sobre el mismo producto. En modo ledger se descuenta en memoria.
+     *
+     * @param id ID del producto
+     * @param cantidad Unidades a descontar
+     * @return DTO de respuesta con el producto actualizado
+     * @throws ProductoNotFoundException Si el producto no existe
+     * @throws StockInsuficienteException Si el stock disponible es menor a la cantidad
+     */
+    public ProductoResponseDTO decrementarStock(Long id, int cantidad) {
+        if (stockLedger.isHabilitado()) {
+            int stock = stockLedger.decrementar(id, cantidad);
+            return publicarAjusteLedger(id, stock + cantidad, stock);
+        }
+
+        int actualizados = productoRepository.decrementarStock(id, cantidad, generadorVersionCambio.siguiente());
+
+        Producto producto = productoRepository.findById(id)
+                .orElseThrow(() -> new ProductoNotFoundException(id));
+        if (actualizados == 0) {
+            throw new StockInsuficienteException(producto.getStock(), cantidad);
+        }
+
+        return publicarAjusteStock(producto, cantidad);
+    }
+
+    /**
+     * Suma stock a un producto de forma atómica.
+     *
+     * @param id ID del producto
+     * @param cantidad Unidades a sumar
+     * @return DTO de respuesta con el producto actualizado
+     * @throws ProductoNotFoundException Si el producto no existe
+     */
+    public ProductoResponseDTO incrementarStock(Long id, int cantidad) {
+        if (stockLedger.isHabilitado()) {
+            int stock = stockLedger.incrementar(id, cantidad);
+            return publicarAjusteLedger(id, stock - cantidad, stock);
+        }
+
+        if (productoRepository.incrementarStock(id, cantidad, generadorVersionCambio.siguiente()) == 0) {
+            throw new ProductoNotFoundException(id);
+        }
+
+        Producto producto = productoRepository.findById(id)
+                .orElseThrow(() -> new ProductoNotFoundException(id));
+        return publicarAjusteStock(producto, -cantidad);
     }
 
     /**
@@ -132,17 +434,109 @@ public class ProductoService {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new ProductoNotFoundException(id));
 
+        ProductoResponseDTO anterior = aplicarLedger(ProductoResponseDTO.fromEntity(producto));
+
         // REGLA DE NEGOCIO: No eliminar productos con stock
         // (Esta validación es una buena práctica, aunque no estaba en la consigna)
-        if (producto.getStock() > 0) {
+        if (anterior.getStock() > 0) {
             throw new StockInsuficienteException(
                     "No se puede eliminar el producto '" + producto.getNombre() +
-                            "' porque tiene stock disponible (" + producto.getStock() + " unidades). " +
+                            "' porque tiene stock disponible (" + anterior.getStock() + " unidades). " +
                             "Por favor, reduzca el stock a 0 antes de eliminar."
             );
         }
 
-        // Eliminar el producto
+        // Eliminar el producto, dejando una marca para el feed de cambios
         productoRepository.deleteById(id);
+        productoEliminadoRepository.save(new ProductoEliminado(id, generadorVersionCambio.siguiente(),
+                producto.getCategoria(), LocalDateTime.now()));
+        stockLedger.descartarAlConfirmar(id);
+        eventPublisher.publishEvent(ProductoEvento.eliminado(anterior));
+    }
+
+    // Con versiones esperadas la fila se lee bloqueada, así nadie la modifica entre la verificación y la escritura
+    private Producto buscarParaActualizar(Long id, Collection<String> versionesEsperadas) {
+        if (versionesEsperadas == null) {
+            return productoRepository.findById(id)
+                    .orElseThrow(() -> new ProductoNotFoundException(id));
+        }
+        Producto producto = productoRepository.findParaActualizarById(id)
+                .orElseThrow(() -> new ProductoNotFoundException(id));
+        if (!versionesEsperadas.contains(productoCache.versionProducto(id, producto.getVersionCambio()))) {
+            throw new PrecondicionFallidaException(id);
+        }
+        return producto;
+    }
+
+    // 'descontado' es lo que se restó al stock; el estado anterior se reconstruye a partir de él
+    private ProductoResponseDTO publicarAjusteStock(Producto producto, int descontado) {
+        ProductoResponseDTO respuesta = ProductoResponseDTO.fromEntity(producto);
+        ProductoResponseDTO anterior = ProductoResponseDTO.fromEntity(producto);
+        anterior.setStock(respuesta.getStock() + descontado);
+        eventPublisher.publishEvent(ProductoEvento.actualizado(anterior, respuesta));
+        return respuesta;
+    }
+
+    /**
+     * Fija el stock en el ledger y devuelve el que tenía, tomado del mismo CAS que lo reemplaza:
+     * una lectura previa podría quedar vieja si otro ajuste se aplica en el medio. Solo en modo ledger.
+     *
+     * @return Stock anterior
+     */
+    int fijarStockEnLedger(Long id, int nuevoStock) {
+        int stockAnterior = stockLedger.fijar(id, nuevoStock);
+        publicarAjusteLedger(id, stockAnterior, nuevoStock);
+        return stockAnterior;
+    }
+
+    // En modo ledger el producto sale de la cache y los stocks, de la operación atómica sobre el ledger:
+    // volver a leerlos del ledger podría incluir ajustes concurrentes posteriores
+    private ProductoResponseDTO publicarAjusteLedger(Long id, int stockAnterior, int stock) {
+        ProductoResponseDTO respuesta = conStock(obtenerPorId(id), stock);
+        eventPublisher.publishEvent(ProductoEvento.actualizado(conStock(respuesta, stockAnterior), respuesta));
+        return respuesta;
+    }
+
+    // Reemplaza el stock confirmado en la base de datos por el del ledger, si lo administra
+    private ProductoResponseDTO aplicarLedger(ProductoResponseDTO producto) {
+        Integer stock = stockLedger.isHabilitado() ? stockLedger.stockActual(producto.getId()) : null;
+        return stock == null ? producto : conStock(producto, stock);
+    }
+
+    private PaginaDTO<ProductoResponseDTO> aplicarLedger(PaginaDTO<ProductoResponseDTO> pagina) {
+        if (!stockLedger.isHabilitado()) {
+            return pagina;
+        }
+        List<ProductoResponseDTO> contenido = pagina.getContenido().stream()
+                .map(this::aplicarLedger)
+                .collect(Collectors.toList());
+        return new PaginaDTO<>(contenido, pagina.getUltimoId(), pagina.getSiguienteCursor(), pagina.isHayMas());
+    }
+
+    // Los DTO pueden estar compartidos por la cache, por eso se copian en lugar de modificarse
+    private static ProductoResponseDTO conStock(ProductoResponseDTO producto, int stock) {
+        return new ProductoResponseDTO(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), stock, producto.getCategoria());
+    }
+
+    private static int normalizarLimite(int limit) {
+        return Math.min(Math.max(limit, 1), LIMITE_PAGINA_MAXIMO);
+    }
+
+    // El cursor opaco tiene prioridad sobre 'after' cuando se envían ambos
+    private static long resolverInicio(Long after, String cursor) {
+        if (cursor != null && !cursor.isBlank()) {
+            return CursorPaginacion.decodificar(cursor);
+        }
+        return after != null ? after : 0L;
+    }
+
+    // Se consulta un elemento extra para saber si hay más páginas sin hacer un COUNT
+    private static PaginaDTO<ProductoResponseDTO> armarPagina(List<ProductoResponseDTO> productos, int tamanio) {
+        boolean hayMas = productos.size() > tamanio;
+        List<ProductoResponseDTO> contenido = hayMas ? productos.subList(0, tamanio) : productos;
+        Long ultimoId = contenido.isEmpty() ? null : contenido.get(contenido.size() - 1).getId();
+        String siguienteCursor = hayMas ? CursorPaginacion.codificar(ultimoId) : null;
+        return new PaginaDTO<>(contenido, ultimoId, siguienteCursor, hayMas);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,543 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.model.Categoria;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot binario del catálogo (productos y marcas de eliminación) para arrancar sin reimportar
+ * y sin recorrer la base para calentar el índice de búsqueda y los agregados.
+ *
+ * Formato: encabezado (magia y versión de formato), un registro por fila precedido por su tipo,
+ * un registro de fin con la cantidad de filas de cada tabla y la mayor versión de cambio incluida
+ * y, al final, el CRC32 de todo lo anterior. Los números van en big-endian y los textos como UTF-8
+ * con su largo (-1 para null).
+ *
+ * El snapshot se escribe periódicamente (solo si hubo cambios, en un hilo propio para no demorar las
+ * demás tareas programadas) y al cerrar la aplicación, en un archivo temporal que después reemplaza al
+ * anterior. Al arrancar, antes que el servidor web (ver {@link #FASE}), se lee con un mapeo de memoria:
+ * - Si la tabla de productos está vacía, se inserta en lotes JDBC, sin pasar por JPA ni por la
+ *   validación, y se reajustan la secuencia de IDs y el generador de versiones.
+ * - Si la base coincide con el snapshot (misma versión de cambio máxima), no se inserta nada.
+ * En los dos casos el índice de búsqueda y los agregados se cargan desde el snapshot; si no
+ * coincide, o si la carga falla a mitad de camino, se calientan desde la base como siempre.
+ *
+ * Se activa con {@code productos.snapshot.enabled=true}.
+ */
+@Slf4j
+@Component
+public class SnapshotCatalogo implements SmartLifecycle {
+
+    /**
+     * Antes que la fase en la que se calientan los agregados y el índice de búsqueda, y por lo tanto
+     * antes del servidor web: la restauración quita índices de la tabla y, si falla, borra lo insertado,
+     * así que no puede convivir con peticiones.
+     */
+    public static final int FASE = InventarioAgregados.FASE - 1;
+
+    private static final int MAGIA = 0x50524F44; // "PROD"
+    private static final int VERSION_FORMATO = 1;
+    private static final byte TIPO_FIN = 0;
+    private static final byte TIPO_PRODUCTO = 1;
+    private static final byte TIPO_ELIMINADO = 2;
+    // Registro de fin (tipo, productos, eliminados, versión) más el CRC
+    private static final int LARGO_COLA = 1 + 3 * Long.BYTES + Long.BYTES;
+
+    private static final int FILAS_POR_TRANSACCION = 5_000;
+
+    private static final String SQL_LEER_PRODUCTOS =
+            "select id, version_cambio, precio, stock, categoria, nombre, descripcion from producto order by id";
+    private static final String SQL_LEER_ELIMINADOS =
+            "select id, version_cambio, categoria, eliminado_en from producto_eliminado order by id";
+    private static final String SQL_INSERTAR_PRODUCTO =
+            "insert into producto (id, version_cambio, precio, stock, categoria, nombre, descripcion) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_INSERTAR_ELIMINADO =
+            "insert into producto_eliminado (id, version_cambio, categoria, eliminado_en) values (?, ?, ?, ?)";
+
+    private final boolean habilitado;
+    private final Path archivo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GeneradorVersionCambio generadorVersionCambio;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final InventarioAgregados inventarioAgregados;
+    // ReentrantLock en lugar de synchronized: no fija el hilo virtual a su portador durante la escritura
+    private final ReentrantLock lock = new ReentrantLock();
+    // Con un catálogo grande la escritura tarda segundos y el scheduler de Spring tiene un solo hilo,
+    // que también hace el flush del ledger de stock y los latidos SSE
+    private final ExecutorService escritor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("snapshot-catalogo").factory());
+    private final AtomicBoolean escrituraPendiente = new AtomicBoolean();
+    // Versión de cambio que refleja el último snapshot escrito o cargado
+    private volatile long versionSnapshot = -1;
+    private volatile boolean iniciado;
+
+    public SnapshotCatalogo(@Value("${productos.snapshot.enabled:false}") boolean habilitado,
+                            @Value("${productos.snapshot.archivo:./data/catalogo.snap}") Path archivo,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            GeneradorVersionCambio generadorVersionCambio,
+                            // Perezosos: Spring arranca primero los Lifecycle de los que depende un bean,
+                            // sin mirar la fase, y se calentarían desde la base antes de la restauración
+                            @Lazy IndiceBusquedaProductos indiceBusqueda,
+                            @Lazy InventarioAgregados inventarioAgregados) {
+        this.habilitado = habilitado;
+        this.archivo = archivo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.generadorVersionCambio = generadorVersionCambio;
+        this.indiceBusqueda = indiceBusqueda;
+        this.inventarioAgregados = inventarioAgregados;
+    }
+
+    @Override
+    public void start() {
+        if (!iniciado) {
+            cargarAlArrancar();
+            iniciado = true;
+        }
+    }
+
+    /**
+     * Escribe el último snapshot. El servidor web ya se detuvo, así que no quedan escrituras en curso.
+     */
+    @Override
+    public void stop() {
+        if (iniciado && habilitado) {
+            escribirSiHuboCambios();
+        }
+        iniciado = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return iniciado;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        escritor.shutdown();
+    }
+
+    private void cargarAlArrancar() {
+        if (!habilitado || !Files.isRegularFile(archivo)) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            MappedByteBuffer buffer = mapear(archivo);
+            long version = buffer.getLong(buffer.limit() - 2 * Long.BYTES);
+            Long existentes = jdbcTemplate.queryForObject("select count(*) from producto", Long.class);
+            if (existentes == null || existentes == 0) {
+                long filas = restaurar(buffer);
+                log.info("Catálogo restaurado desde {}: {} filas en {} ms", archivo, filas,
+                        (System.nanoTime() - inicio) / 1_000_000);
+            } else if (version != generadorVersionCambio.versionSegura()) {
+                log.info("El snapshot {} no coincide con la base (versión {} contra {}); se calienta desde la base",
+                        archivo, version, generadorVersionCambio.versionSegura());
+                return;
+            }
+            long productos = precargar(buffer);
+            versionSnapshot = generadorVersionCambio.versionSegura();
+            log.info("Índice de búsqueda y agregados cargados desde {}: {} productos en {} ms", archivo, productos,
+                    (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo cargar el snapshot {}; se arranca con lo que hay en la base", archivo, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${productos.snapshot.intervalo:600000}",
+            initialDelayString = "${productos.snapshot.intervalo:600000}")
+    public void escribirPeriodico() {
+        // Si la escritura anterior sigue en curso no se encola otra
+        if (habilitado && escrituraPendiente.compareAndSet(false, true)) {
+            escritor.execute(() -> {
+                try {
+                    escribirSiHuboCambios();
+                } finally {
+                    escrituraPendiente.set(false);
+                }
+            });
+        }
+    }
+
+    private void escribirSiHuboCambios() {
+        lock.lock();
+        try {
+            long version = generadorVersionCambio.versionSegura();
+            if (version == versionSnapshot) {
+                return;
+            }
+            long inicio = System.nanoTime();
+            long filas = escribir(archivo);
+            versionSnapshot = version;
+            log.info("Snapshot del catálogo escrito en {}: {} filas en {} ms", archivo, filas,
+                    (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo escribir el snapshot {}", archivo, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Escribe el catálogo completo en {@code destino}, reemplazándolo solo si la escritura termina bien.
+     *
+     * @return Cantidad de filas escritas
+     */
+    public long escribir(Path destino) throws IOException {
+        Path directorio = destino.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, destino.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            // Filas de cada tabla y mayor versión de cambio leída
+            long[] totales = new long[3];
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Files.newOutputStream(temporal), crc), 1 << 16))) {
+                out.writeInt(MAGIA);
+                out.writeInt(VERSION_FORMATO);
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.query(SQL_LEER_PRODUCTOS, (RowCallbackHandler) rs -> {
+                        totales[2] = Math.max(totales[2], escribirProducto(out, rs));
+                        totales[0]++;
+                    });
+                    jdbcTemplate.query(SQL_LEER_ELIMINADOS, (RowCallbackHandler) rs -> {
+                        totales[2] = Math.max(totales[2], escribirEliminado(out, rs));
+                        totales[1]++;
+                    });
+                });
+                out.writeByte(TIPO_FIN);
+                out.writeLong(totales[0]);
+                out.writeLong(totales[1]);
+                out.writeLong(totales[2]);
+                // Con el buffer vaciado, el CRC cubre todo lo escrito hasta acá
+                out.flush();
+                out.writeLong(crc.getValue());
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return totales[0] + totales[1];
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static long escribirProducto(DataOutputStream out, ResultSet rs) throws SQLException {
+        try {
+            long version = rs.getLong(2);
+            out.writeByte(TIPO_PRODUCTO);
+            out.writeLong(rs.getLong(1));
+            out.writeLong(version);
+            double precio = rs.getDouble(3);
+            out.writeDouble(rs.wasNull() ? Double.NaN : precio);
+            int stock = rs.getInt(4);
+            out.writeInt(rs.wasNull() ? Integer.MIN_VALUE : stock);
+            escribirTexto(out, rs.getString(5));
+            escribirTexto(out, rs.getString(6));
+            escribirTexto(out, rs.getString(7));
+            return version;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long escribirEliminado(DataOutputStream out, ResultSet rs) throws SQLException {
+        try {
+            long version = rs.getLong(2);
+            out.writeByte(TIPO_ELIMINADO);
+            out.writeLong(rs.getLong(1));
+            out.writeLong(version);
+            escribirTexto(out, rs.getString(3));
+            Timestamp eliminadoEn = rs.getTimestamp(4);
+            out.writeLong(eliminadoEn != null ? eliminadoEn.getTime() : Long.MIN_VALUE);
+            return version;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Mapea el snapshot en memoria y verifica el CRC de todo el archivo, así uno truncado o
+     * dañado se descarta antes de insertar nada.
+     */
+    public static MappedByteBuffer mapear(Path origen) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel canal = FileChannel.open(origen, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot demasiado grande para un único mapeo: " + canal.size() + " bytes");
+            }
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        int largo = buffer.limit();
+        if (largo < 2 * Integer.BYTES + LARGO_COLA || buffer.getInt(0) != MAGIA) {
+            throw new IOException("El archivo no es un snapshot del catálogo");
+        }
+        if (buffer.getInt(4) != VERSION_FORMATO) {
+            throw new IOException("Versión de formato de snapshot no soportada: " + buffer.getInt(4));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, largo - Long.BYTES));
+        if (crc.getValue() != buffer.getLong(largo - Long.BYTES)) {
+            throw new IOException("El snapshot está dañado (CRC no coincide)");
+        }
+        return buffer;
+    }
+
+    /**
+     * Inserta en la base, que tiene que estar vacía, el contenido de un snapshot ya verificado.
+     * Si falla, se borra lo insertado para no dejar una restauración a medias.
+     *
+     * @return Cantidad de filas insertadas
+     */
+    public long restaurar(MappedByteBuffer snapshot) {
+        ByteBuffer buffer = snapshot.duplicate().position(2 * Integer.BYTES);
+        Lote productos = new Lote(SQL_INSERTAR_PRODUCTO, 7);
+        Lote eliminados = new Lote(SQL_INSERTAR_ELIMINADO, 4);
+        // Los índices secundarios se reconstruyen al final: ordenar una vez es más barato que
+        // mantenerlos fila por fila durante la carga
+        List<String> indices = quitarIndicesSecundarios();
+        try {
+            byte[] temporal = new byte[256];
+            byte tipo;
+            while ((tipo = buffer.get()) != TIPO_FIN) {
+                if (tipo == TIPO_PRODUCTO) {
+                    Object[] fila = productos.siguiente();
+                    fila[0] = buffer.getLong();
+                    fila[1] = buffer.getLong();
+                    double precio = buffer.getDouble();
+                    fila[2] = Double.isNaN(precio) ? null : precio;
+                    int stock = buffer.getInt();
+                    fila[3] = stock == Integer.MIN_VALUE ? null : stock;
+                    fila[4] = leerTexto(buffer, temporal);
+                    fila[5] = leerTexto(buffer, temporal);
+                    fila[6] = leerTexto(buffer, temporal);
+                    productos.enviarSiLleno();
+                } else if (tipo == TIPO_ELIMINADO) {
+                    Object[] fila = eliminados.siguiente();
+                    fila[0] = buffer.getLong();
+                    fila[1] = buffer.getLong();
+                    fila[2] = leerTexto(buffer, temporal);
+                    long eliminadoEn = buffer.getLong();
+                    fila[3] = eliminadoEn == Long.MIN_VALUE ? null : new Timestamp(eliminadoEn);
+                    eliminados.enviarSiLleno();
+                } else {
+                    throw new IllegalStateException("Tipo de registro desconocido en el snapshot: " + tipo);
+                }
+            }
+            productos.enviar();
+            eliminados.enviar();
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("delete from producto");
+                jdbcTemplate.update("delete from producto_eliminado");
+            });
+            throw e;
+        } finally {
+            indices.forEach(jdbcTemplate::execute);
+        }
+
+        reajustarSecuencia();
+        generadorVersionCambio.reiniciarDesdeBase();
+        return productos.insertadas + eliminados.insertadas;
+    }
+
+    /**
+     * Carga los productos del snapshot en el índice de búsqueda y en los agregados por categoría.
+     * Si falla, los vacía a los dos para que se calienten desde la base.
+     *
+     * @return Cantidad de productos cargados
+     */
+    public long precargar(MappedByteBuffer snapshot) {
+        try {
+            return precargarSinDescartar(snapshot);
+        } catch (RuntimeException e) {
+            indiceBusqueda.descartarPrecarga();
+            inventarioAgregados.descartarPrecarga();
+            throw e;
+        }
+    }
+
+    private long precargarSinDescartar(MappedByteBuffer snapshot) {
+        ByteBuffer buffer = snapshot.duplicate().position(2 * Integer.BYTES);
+        byte[] temporal = new byte[256];
+        long productos = 0;
+        byte tipo;
+        while ((tipo = buffer.get()) != TIPO_FIN) {
+            if (tipo == TIPO_PRODUCTO) {
+                long id = buffer.getLong();
+                buffer.getLong();
+                double precio = buffer.getDouble();
+                int stock = buffer.getInt();
+                String categoria = leerTexto(buffer, temporal);
+                ProductoResponseDTO producto = new ProductoResponseDTO(id,
+                        leerTexto(buffer, temporal),
+                        leerTexto(buffer, temporal),
+                        Double.isNaN(precio) ? 0 : precio,
+                        stock == Integer.MIN_VALUE ? 0 : stock,
+                        categoria == null ? null : Categoria.valueOf(categoria));
+                indiceBusqueda.precargar(producto);
+                inventarioAgregados.precargar(producto);
+                productos++;
+            } else {
+                // Las marcas de eliminación no participan del índice ni de los agregados
+                buffer.position(buffer.position() + 2 * Long.BYTES);
+                leerTexto(buffer, temporal);
+                buffer.getLong();
+            }
+        }
+        return productos;
+    }
+
+    private static String leerTexto(ByteBuffer buffer, byte[] temporal) {
+        int largo = buffer.getInt();
+        if (largo < 0) {
+            return null;
+        }
+        byte[] bytes = largo <= temporal.length ? temporal : new byte[largo];
+        buffer.get(bytes, 0, largo);
+        return new String(bytes, 0, largo, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Quita los índices secundarios de la tabla de productos.
+     *
+     * @return Sentencias para volver a crearlos
+     */
+    private List<String> quitarIndicesSecundarios() {
+        Map<String, List<String>> columnas = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                select c.index_name, c.column_name from information_schema.index_columns c
+                join information_schema.indexes i on i.index_schema = c.index_schema and i.index_name = c.index_name
+                where c.table_name = 'PRODUCTO' and i.index_type_name = 'INDEX'
+                order by c.index_name, c.ordinal_position""",
+                (RowCallbackHandler) rs -> columnas.computeIfAbsent(rs.getString(1), n -> new ArrayList<>()).add(rs.getString(2)));
+        List<String> creaciones = new ArrayList<>();
+        columnas.forEach((indice, columnasIndice) -> {
+            jdbcTemplate.execute("drop index " + indice);
+            creaciones.add("create index " + indice + " on producto (" + String.join(", ", columnasIndice) + ")");
+        });
+        return creaciones;
+    }
+
+    /**
+     * Lleva la secuencia de IDs más allá del mayor ID restaurado. Con el optimizador "pooled" el
+     * valor de la secuencia es el extremo superior del bloque, así que se suma un incremento completo.
+     */
+    private void reajustarSecuencia() {
+        Long maximo = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from producto", Long.class);
+        Long incremento = jdbcTemplate.queryForObject(
+                "select increment from information_schema.sequences where sequence_name = 'PRODUCTO_SEQ'", Long.class);
+        if (maximo != null && maximo > 0 && incremento != null) {
+            jdbcTemplate.execute("alter sequence producto_seq restart with " + (maximo + incremento));
+        }
+    }
+
+    // Filas decodificadas pendientes de insertar; se envían en lotes JDBC, una transacción por lote
+    private final class Lote {
+        private final String sql;
+        private final Object[][] filas = new Object[FILAS_POR_TRANSACCION][];
+        private int tamanio;
+        private long insertadas;
+
+        Lote(String sql, int columnas) {
+            this.sql = sql;
+            for (int i = 0; i < filas.length; i++) {
+                filas[i] = new Object[columnas];
+            }
+        }
+
+        Object[] siguiente() {
+            return filas[tamanio++];
+        }
+
+        void enviarSiLleno() {
+            if (tamanio == filas.length) {
+                enviar();
+            }
+        }
+
+        void enviar() {
+            if (tamanio == 0) {
+                return;
+            }
+            int cantidad = tamanio;
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Object[] fila = filas[i];
+                            for (int columna = 0; columna < fila.length; columna++) {
+                                if (fila[columna] == null) {
+                                    ps.setNull(columna + 1, Types.NULL);
+                                } else {
+                                    ps.setObject(columna + 1, fila[columna]);
+                                }
+                            }
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return cantidad;
+                        }
+                    }));
+            insertadas += cantidad;
+            tamanio = 0;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.exception.ProductoNotFoundException;
+import com.utn.productos_api.exception.StockInsuficienteException;
+import com.utn.productos_api.model.Producto;
+import com.utn.productos_api.repository.ProductoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Modo "ledger" de stock: el stock de los productos vive en memoria y los cambios
+ * se escriben en la base de datos en lotes periódicos (write-behind).
+ *
+ * Cada producto tiene un único {@link AtomicLong} que empaqueta el stock actual
+ * (32 bits altos) y el delta pendiente de escribir (32 bits bajos), por lo que ambos
+ * se actualizan juntos con un solo CAS, sin locks. El mapa está particionado
+ * internamente ({@link ConcurrentHashMap}), así que productos distintos no compiten.
+ *
+ * Semántica ante fallos:
+ * - Apagado ordenado: antes de cerrar el contexto se escriben todos los deltas pendientes.
+ * - Caída del proceso: se pierden los deltas aún no escritos (a lo sumo un intervalo de flush).
+ *   Al reiniciar, el stock se vuelve a cargar desde la base de datos.
+ * - Error al escribir un lote: los deltas se devuelven al ledger y se reintentan en el próximo flush.
+ *
+ * El ledger no participa de las transacciones de la base de datos: lo que se cambia en él no se
+ * deshace con un rollback. Los cambios que acompañan a una escritura en la base se aplican con
+ * {@link #fijarAlConfirmar} y {@link #descartarAlConfirmar}, recién cuando esa transacción confirma.
+ *
+ * Se activa con {@code productos.stock.ledger.enabled=true}.
+ */
+@Slf4j
+@Component
+public class StockLedger {
+
+    private static final String SQL_APLICAR_DELTA =
+            "update producto set stock = stock + ?, version_cambio = ? where id = ?";
+
+    private final boolean habilitado;
+    private final ProductoRepository productoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GeneradorVersionCambio generadorVersionCambio;
+    private final ConcurrentHashMap<Long, AtomicLong> entradas = new ConcurrentHashMap<>();
+    // Un flush a la vez, y ninguno durante una lectura de leerSinFlush
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Resultado de una lectura de la base junto con los deltas que todavía no estaban escritos.
+     * Para cada producto: stock en memoria = stock leído de la base + pendiente.
+     */
+    public record LecturaConPendientes<T>(T resultado, Map<Long, Integer> pendientes) {
+    }
+
+    public StockLedger(@Value("${productos.stock.ledger.enabled:false}") boolean habilitado,
+                       ProductoRepository productoRepository,
+                       JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       GeneradorVersionCambio generadorVersionCambio) {
+        this.habilitado = habilitado;
+        this.productoRepository = productoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.generadorVersionCambio = generadorVersionCambio;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Descuenta stock si alcanza.
+     *
+     * @return Stock resultante
+     * @throws StockInsuficienteException Si el stock disponible es menor a la cantidad
+     */
+    public int decrementar(Long id, int cantidad) {
+        AtomicLong entrada = obtenerEntrada(id);
+        while (true) {
+            long actual = entrada.get();
+            int stock = stock(actual);
+            if (stock < cantidad) {
+                throw new StockInsuficienteException(stock, cantidad);
+            }
+            if (entrada.compareAndSet(actual, empaquetar(stock - cantidad, pendiente(actual) - cantidad))) {
+                return stock - cantidad;
+            }
+        }
+    }
+
+    /**
+     * Suma stock.
+     *
+     * @return Stock resultante
+     */
+    public int incrementar(Long id, int cantidad) {
+        AtomicLong entrada = obtenerEntrada(id);
+        while (true) {
+            long actual = entrada.get();
+            int stock = stock(actual);
+            if (entrada.compareAndSet(actual, empaquetar(stock + cantidad, pendiente(actual) + cantidad))) {
+                return stock + cantidad;
+            }
+        }
+    }
+
+    /**
+     * Fija el stock en un valor absoluto. Se registra como delta para que el flush
+     * conmute con el resto de los ajustes.
+     *
+     * @return Stock anterior
+     */
+    public int fijar(Long id, int nuevoStock) {
+        AtomicLong entrada = obtenerEntrada(id);
+        while (true) {
+            long actual = entrada.get();
+            int stock = stock(actual);
+            if (entrada.compareAndSet(actual, empaquetar(nuevoStock, pendiente(actual) + nuevoStock - stock))) {
+                return stock;
+            }
+        }
+    }
+
+    /**
+     * Como {@link #fijar}, pero si hay una transacción activa el stock se fija recién cuando confirma.
+     */
+    public void fijarAlConfirmar(Long id, int nuevoStock) {
+        alConfirmar(() -> fijar(id, nuevoStock));
+    }
+
+    /**
+     * Devuelve el stock en memoria del producto, o {@code null} si el ledger no lo administra.
+     */
+    public Integer stockActual(Long id) {
+        AtomicLong entrada = entradas.get(id);
+        return entrada != null ? stock(entrada.get()) : null;
+    }
+
+    /**
+     * Deja de administrar el stock de un producto eliminado.
+     */
+    public void descartar(Long id) {
+        entradas.remove(id);
+    }
+
+    /**
+     * Como {@link #descartar}, pero si hay una transacción activa se descarta recién cuando confirma.
+     */
+    public void descartarAlConfirmar(Long id) {
+        alConfirmar(() -> descartar(id));
+    }
+
+    /**
+     * Ejecuta una lectura de la base de datos sin que un flush se intercale y devuelve, con su
+     * resultado, los deltas que todavía no se escribieron. Sirve para comparar la base con
+     * contadores que ya incluyen el stock en memoria.
+     */
+    public <T> LecturaConPendientes<T> leerSinFlush(Supplier<T> lectura) {
+        flushLock.lock();
+        try {
+            T resultado = lectura.get();
+            Map<Long, Integer> pendientes = new HashMap<>();
+            entradas.forEach((id, entrada) -> {
+                int pendiente = pendiente(entrada.get());
+                if (pendiente != 0) {
+                    pendientes.put(id, pendiente);
+                }
+            });
+            return new LecturaConPendientes<>(resultado, pendientes);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Escribe en la base de datos los deltas acumulados, en un único lote JDBC.
+     */
+    @Scheduled(fixedDelayString = "${productos.stock.ledger.intervalo-flush:200}")
+    public void flush() {
+        if (!habilitado || entradas.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            escribirPendientes();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void escribirPendientes() {
+        List<Object[]> lote = new ArrayList<>();
+        for (Map.Entry<Long, AtomicLong> e : entradas.entrySet()) {
+            int delta = tomarPendiente(e.getValue());
+            if (delta != 0) {
+                lote.add(new Object[]{delta, null, e.getKey()});
+            }
+        }
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                lote.forEach(fila -> fila[1] = generadorVersionCambio.siguiente());
+                jdbcTemplate.batchUpdate(SQL_APLICAR_DELTA, lote);
+            });
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo escribir el lote de stock ({} productos); se reintentará", lote.size(), ex);
+            lote.forEach(fila -> devolverPendiente((Long) fila[2], (Integer) fila[0]));
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        flush();
+    }
+
+    // Antes que los listeners de eventos de la misma transacción, que pueden leer el stock del ledger
+    private static void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+        });
+    }
+
+    private AtomicLong obtenerEntrada(Long id) {
+        AtomicLong entrada = entradas.get(id);
+        if (entrada != null) {
+            return entrada;
+        }
+        // Primer acceso: se carga el stock confirmado en la base de datos. La consulta va fuera de
+        // computeIfAbsent, que la correría con el monitor del bin tomado y fijaría el hilo virtual a su
+        // carrier. Si dos hilos cargan a la vez leen el mismo stock (sin entrada no hay deltas que
+        // escribir) y se queda la entrada del primero.
+        Producto producto = productoRepository.findById(id).orElseThrow(() -> new ProductoNotFoundException(id));
+        AtomicLong nueva = new AtomicLong(empaquetar(producto.getStock(), 0));
+        AtomicLong existente = entradas.putIfAbsent(id, nueva);
+        return existente != null ? existente : nueva;
+    }
+
+    private static int tomarPendiente(AtomicLong entrada) {
+        while (true) {
+            long actual = entrada.get();
+            int pendiente = pendiente(actual);
+            if (pendiente == 0 || entrada.compareAndSet(actual, empaquetar(stock(actual), 0))) {
+                return pendiente;
+            }
+        }
+    }
+
+    private void devolverPendiente(Long id, int delta) {
+        AtomicLong entrada = entradas.get(id);
+        if (entrada == null) {
+            return;
+        }
+        while (true) {
+            long actual = entrada.get();
+            if (entrada.compareAndSet(actual, empaquetar(stock(actual), pendiente(actual) + delta))) {
+                return;
+            }
+        }
+    }
+
+    private static long empaquetar(int stock, int pendiente) {
+        return ((long) stock << 32) | (pendiente & 0xFFFFFFFFL);
+    }
+
+    private static int stock(long valor) {
+        return (int) (valor >> 32);
+    }
+
+    private static int pendiente(long valor) {
+        return (int) valor;
+    }
+}
@@ -0,0 +1,106 @@
+package com.utn.productos_api.service;
+
+/**
+ * Mapa de IDs de producto a valores, con direccionamiento abierto y sondeo lineal.
+ * Las claves van en un {@code long[]}: sin el {@code Long} ni el nodo por entrada de un {@code HashMap<Long, V>}.
+ * No admite valores nulos. No es thread-safe.
+ */
+final class TablaPorId<V> {
+
+    private static final long FIBONACCI = 0x9E3779B97F4A7C15L;
+
+    private long[] claves;
+    private Object[] valores;
+    private int bits;
+    private int tamanio;
+
+    TablaPorId() {
+        bits = 4;
+        claves = new long[1 << bits];
+        valores = new Object[1 << bits];
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long id) {
+        int mascara = claves.length - 1;
+        for (int i = posicionIdeal(id); valores[i] != null; i = (i + 1) & mascara) {
+            if (claves[i] == id) {
+                return (V) valores[i];
+            }
+        }
+        return null;
+    }
+
+    void put(long id, V valor) {
+        int mascara = claves.length - 1;
+        int i = posicionIdeal(id);
+        while (valores[i] != null) {
+            if (claves[i] == id) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = id;
+        valores[i] = valor;
+        // Factor de carga máximo de 3/4
+        if (++tamanio * 4L > claves.length * 3L) {
+            crecer();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long id) {
+        int mascara = claves.length - 1;
+        int i = posicionIdeal(id);
+        while (valores[i] != null && claves[i] != id) {
+            i = (i + 1) & mascara;
+        }
+        if (valores[i] == null) {
+            return null;
+        }
+        V anterior = (V) valores[i];
+        // Borrado sin marcas: se corren hacia el hueco las entradas que quedarían inalcanzables
+        int hueco = i;
+        valores[hueco] = null;
+        for (int j = (hueco + 1) & mascara; valores[j] != null; j = (j + 1) & mascara) {
+            int ideal = posicionIdeal(claves[j]);
+            boolean alcanzable = hueco < j ? ideal > hueco && ideal <= j : ideal > hueco || ideal <= j;
+            if (!alcanzable) {
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                valores[j] = null;
+                hueco = j;
+            }
+        }
+        tamanio--;
+        return anterior;
+    }
+
+    int tamanio() {
+        return tamanio;
+    }
+
+    private int posicionIdeal(long id) {
+        return (int) ((id * FIBONACCI) >>> (64 - bits));
+    }
+
+    private void crecer() {
+        long[] clavesAnteriores = claves;
+        Object[] valoresAnteriores = valores;
+        bits++;
+        claves = new long[1 << bits];
+        valores = new Object[1 << bits];
+        int mascara = claves.length - 1;
+        for (int j = 0; j < clavesAnteriores.length; j++) {
+            if (valoresAnteriores[j] != null) {
+                int i = posicionIdeal(clavesAnteriores[j]);
+                while (valores[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clavesAnteriores[j];
+                valores[i] = valoresAnteriores[j];
+            }
+        }
+    }
+}
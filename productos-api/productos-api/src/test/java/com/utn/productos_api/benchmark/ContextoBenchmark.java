@@ -0,0 +1,108 @@
+package com.utn.productos_api.benchmark;
+
+import com.utn.productos_api.ProductosApiApplication;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ResultadoFilaDTO;
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.service.ImportacionService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Utilidades compartidas por los benchmarks: arranque del contexto de Spring contra una
+ * base H2 en memoria propia y generación de catálogos de prueba reproducibles.
+ */
+final class ContextoBenchmark {
+
+	private static final String[] PALABRAS = {
+			"notebook", "remera", "yerba", "sillon", "pelota", "auricular", "campera", "cafe",
+			"lampara", "bicicleta", "monitor", "zapatilla", "galletita", "mesa", "raqueta"
+	};
+	private static final Categoria[] CATEGORIAS = Categoria.values();
+
+	private ContextoBenchmark() {
+	}
+
+	/**
+	 * Arranca la aplicación sin servidor web, con logging mínimo y una base en memoria única.
+	 *
+	 * @param propiedades Propiedades adicionales con formato clave=valor
+	 */
+	static ConfigurableApplicationContext iniciar(String... propiedades) {
+		return iniciar(WebApplicationType.NONE, true, propiedades);
+	}
+
+	/**
+	 * Igual que {@link #iniciar(String...)} pero con Tomcat escuchando en un puerto libre al azar.
+	 *
+	 * @param silenciarLogs Si es falso se usa la configuración de logging de la aplicación tal cual
+	 *                      (por ejemplo, para medir el costo del logging de SQL)
+	 */
+	static ConfigurableApplicationContext iniciarServidor(boolean silenciarLogs, String... propiedades) {
+		String[] conPuerto = Arrays.copyOf(propiedades, propiedades.length + 1);
+		conPuerto[propiedades.length] = "server.port=0";
+		return iniciar(WebApplicationType.SERVLET, silenciarLogs, conPuerto);
+	}
+
+	private static ConfigurableApplicationContext iniciar(WebApplicationType tipo, boolean silenciarLogs,
+														  String... propiedades) {
+		// Se pasan como argumentos de línea de comandos para que tengan prioridad sobre application.properties
+		List<String> argumentos = new ArrayList<>(List.of(
+				"--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+				"--spring.main.banner-mode=off"));
+		if (silenciarLogs) {
+			argumentos.addAll(List.of(
+					"--spring.jpa.show-sql=false",
+					"--logging.level.root=WARN",
+					"--logging.level.org.springframework=WARN",
+					"--logging.level.org.hibernate.SQL=WARN",
+					"--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+		}
+		for (String propiedad : propiedades) {
+			argumentos.add("--" + propiedad);
+		}
+		// DevTools lee esta propiedad del sistema antes de arrancar; si reiniciara, duplicaría los argumentos
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		return new SpringApplicationBuilder(ProductosApiApplication.class)
+				.web(tipo)
+				.properties("spring.autoconfigure.exclude=org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration")
+				.run(argumentos.toArray(String[]::new));
+	}
+
+	/**
+	 * Genera un catálogo de productos válidos; la misma semilla produce siempre el mismo catálogo.
+	 */
+	static List<ProductoDTO> catalogo(int tamanio, long semilla) {
+		Random random = new Random(semilla);
+		List<ProductoDTO> productos = new ArrayList<>(tamanio);
+		for (int i = 0; i < tamanio; i++) {
+			String palabra = PALABRAS[random.nextInt(PALABRAS.length)];
+			String otra = PALABRAS[random.nextInt(PALABRAS.length)];
+			productos.add(new ProductoDTO(
+					"Producto " + i + " " + palabra,
+					"Descripcion de " + palabra + " con " + otra,
+					1 + random.nextInt(100_000) / 100.0,
+					random.nextInt(500),
+					CATEGORIAS[i % CATEGORIAS.length]));
+		}
+		return productos;
+	}
+
+	/**
+	 * Inserta un catálogo de {@code tamanio} productos y devuelve los IDs creados.
+	 */
+	static long[] sembrar(ConfigurableApplicationContext contexto, int tamanio) {
+		ImportacionService importacionService = contexto.getBean(ImportacionService.class);
+		return importacionService.importar(catalogo(tamanio, 42).iterator()).getFilas().stream()
+				.filter(ResultadoFilaDTO::isCreado)
+				.mapToLong(ResultadoFilaDTO::getId)
+				.toArray();
+	}
+}
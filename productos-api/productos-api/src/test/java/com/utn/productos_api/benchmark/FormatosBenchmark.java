@@ -0,0 +1,104 @@
+package com.utn.productos_api.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON frente a los formatos binarios de FormatosBinariosConfig (CBOR y Smile, con enums como ordinal):
+ * costo de serializar y deserializar una lista de productos. Los tamaños del payload, con y sin gzip,
+ * se imprimen al preparar cada combinación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatosBenchmark {
+
+	@Param({"json", "cbor", "smile"})
+	String formato;
+
+	@Param({"100", "1000", "10000"})
+	int tamanioCatalogo;
+
+	private ObjectWriter writer;
+	private ObjectReader reader;
+	private List<ProductoResponseDTO> productos;
+	private byte[] serializado;
+
+	@Setup
+	public void preparar() throws IOException {
+		ObjectMapper objectMapper = switch (formato) {
+			case "cbor" -> mapperBinario(new CBORFactory());
+			case "smile" -> mapperBinario(new SmileFactory());
+			default -> Jackson2ObjectMapperBuilder.json().build();
+		};
+		TypeReference<List<ProductoResponseDTO>> tipo = new TypeReference<>() { };
+		writer = objectMapper.writerFor(tipo);
+		reader = objectMapper.readerFor(tipo);
+
+		List<ProductoDTO> dtos = ContextoBenchmark.catalogo(tamanioCatalogo, 42);
+		productos = new ArrayList<>(dtos.size());
+		for (int i = 0; i < dtos.size(); i++) {
+			ProductoDTO dto = dtos.get(i);
+			productos.add(new ProductoResponseDTO((long) i + 1, dto.getNombre(), dto.getDescripcion(),
+					dto.getPrecio(), dto.getStock(), dto.getCategoria()));
+		}
+		serializado = writer.writeValueAsBytes(productos);
+		System.out.printf("%s, %d productos: %d bytes, %d bytes con gzip%n",
+				formato, tamanioCatalogo, serializado.length, tamanioGzip(serializado));
+	}
+
+	private static ObjectMapper mapperBinario(JsonFactory factory) {
+		return Jackson2ObjectMapperBuilder.json()
+				.factory(factory)
+				.featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+				.build();
+	}
+
+	private static int tamanioGzip(byte[] datos) throws IOException {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+			gzip.write(datos);
+		}
+		return salida.size();
+	}
+
+	@Benchmark
+	public byte[] serializar() throws IOException {
+		return writer.writeValueAsBytes(productos);
+	}
+
+	@Benchmark
+	public List<ProductoResponseDTO> deserializar() throws IOException {
+		return reader.readValue(serializado);
+	}
+}
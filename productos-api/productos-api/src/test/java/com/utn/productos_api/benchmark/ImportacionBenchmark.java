@@ -0,0 +1,68 @@
+package com.utn.productos_api.benchmark;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ResultadoImportacionDTO;
+import com.utn.productos_api.service.ImportacionService;
+import com.utn.productos_api.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alta masiva en lotes ({@link ImportacionService}) frente a crear los productos de a uno.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportacionBenchmark {
+
+	@Param({"100", "1000"})
+	int filas;
+
+	private ConfigurableApplicationContext contexto;
+	private ImportacionService importacionService;
+	private ProductoService productoService;
+	private List<ProductoDTO> productos;
+
+	@Setup
+	public void preparar() {
+		contexto = ContextoBenchmark.iniciar();
+		importacionService = contexto.getBean(ImportacionService.class);
+		productoService = contexto.getBean(ProductoService.class);
+		productos = ContextoBenchmark.catalogo(filas, 7);
+	}
+
+	@TearDown
+	public void cerrar() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public ResultadoImportacionDTO importarEnLotes() {
+		return importacionService.importar(productos.iterator());
+	}
+
+	@Benchmark
+	public void crearDeAUno(Blackhole blackhole) {
+		for (ProductoDTO producto : productos) {
+			blackhole.consume(productoService.crearProducto(producto));
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.utn.productos_api.benchmark;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.service.IndiceBusquedaProductos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de {@link IndiceBusquedaProductos#buscar} sobre el índice solo, sin Spring ni base de datos,
+ * para poder llegar al millón de productos. Se mide por muestreo para ver los percentiles (p0.99).
+ *
+ * Consultas: un término frecuente como prefijo ("note", uno de cada 15 nombres y 2 de cada 15
+ * descripciones), dos términos ("remera ca"), un número de producto ("producto 4242", donde
+ * "producto" está en todos los nombres) y un prefijo de un dígito ("4"), que abarca más términos
+ * de los que se expanden.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class IndiceBusquedaBenchmark {
+
+	@Param({"10000", "1000000"})
+	int tamanioCatalogo;
+
+	@Param({"note", "remera ca", "producto 4242", "4"})
+	String consulta;
+
+	private IndiceBusquedaProductos indice;
+
+	@Setup
+	public void preparar() {
+		indice = new IndiceBusquedaProductos(null);
+		List<ProductoDTO> catalogo = ContextoBenchmark.catalogo(tamanioCatalogo, 42);
+		for (int i = 0; i < catalogo.size(); i++) {
+			ProductoDTO producto = catalogo.get(i);
+			indice.indexar(new ProductoResponseDTO((long) i + 1, producto.getNombre(), producto.getDescripcion(),
+					producto.getPrecio(), producto.getStock(), producto.getCategoria()));
+		}
+	}
+
+	@Benchmark
+	public Object buscar() {
+		return indice.buscar(consulta, null, IndiceBusquedaProductos.LIMITE_POR_DEFECTO);
+	}
+}
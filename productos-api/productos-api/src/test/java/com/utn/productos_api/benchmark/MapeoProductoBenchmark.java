@@ -0,0 +1,67 @@
+package com.utn.productos_api.benchmark;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.model.Producto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de las conversiones entre DTOs y la entidad {@link Producto} sobre un catálogo completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapeoProductoBenchmark {
+
+	@Param({"100", "10000"})
+	int tamanioCatalogo;
+
+	private List<ProductoDTO> dtos;
+	private List<Producto> entidades;
+
+	@Setup
+	public void preparar() {
+		dtos = ContextoBenchmark.catalogo(tamanioCatalogo, 42);
+		entidades = dtos.stream().map(ProductoDTO::toEntity).toList();
+		for (int i = 0; i < entidades.size(); i++) {
+			entidades.get(i).setId(i + 1);
+		}
+	}
+
+	@Benchmark
+	public void toEntity(Blackhole blackhole) {
+		for (ProductoDTO dto : dtos) {
+			blackhole.consume(dto.toEntity());
+		}
+	}
+
+	@Benchmark
+	public void updateEntity(Blackhole blackhole) {
+		for (int i = 0; i < dtos.size(); i++) {
+			dtos.get(i).updateEntity(entidades.get(i));
+		}
+		blackhole.consume(entidades);
+	}
+
+	@Benchmark
+	public List<ProductoResponseDTO> fromEntity() {
+		return entidades.stream().map(ProductoResponseDTO::fromEntity).toList();
+	}
+}
@@ -0,0 +1,76 @@
+package com.utn.productos_api.benchmark;
+
+import com.utn.productos_api.dto.PaginaDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la instrumentación: las mismas operaciones del servicio con las métricas
+ * (timers de @Timed, estadísticas de Hibernate y demás meters) habilitadas y deshabilitadas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricasBenchmark {
+
+	@Param({"false", "true"})
+	boolean metricas;
+
+	private ConfigurableApplicationContext contexto;
+	private ProductoService productoService;
+	private long[] ids;
+
+	@Setup
+	public void preparar() {
+		contexto = ContextoBenchmark.iniciar(
+				"productos.metricas.servicio.enabled=" + metricas,
+				"spring.jpa.properties.hibernate.generate_statistics=" + metricas,
+				"management.metrics.enable.all=" + metricas);
+		productoService = contexto.getBean(ProductoService.class);
+		ids = ContextoBenchmark.sembrar(contexto, 1000);
+	}
+
+	@TearDown
+	public void cerrar() {
+		contexto.close();
+	}
+
+	/** Acierto de cache: la operación más barata, donde la instrumentación pesa más en proporción. */
+	@Benchmark
+	public ProductoResponseDTO obtenerPorId() {
+		return productoService.obtenerPorId(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+	}
+
+	@Benchmark
+	public PaginaDTO<ProductoResponseDTO> obtenerPagina() {
+		return productoService.obtenerPagina(ids[ThreadLocalRandom.current().nextInt(ids.length)], null,
+				ProductoService.LIMITE_PAGINA_POR_DEFECTO);
+	}
+
+	@Benchmark
+	public void decrementarEIncrementar(Blackhole blackhole) {
+		long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+		blackhole.consume(productoService.incrementarStock(id, 1));
+		blackhole.consume(productoService.decrementarStock(id, 1));
+	}
+}
@@ -0,0 +1,95 @@
+package com.utn.productos_api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la instrumentación en el camino HTTP completo: a diferencia de {@link MetricasBenchmark},
+ * cada operación pasa por Tomcat, los filtros y la observación de {@code http.server.requests}.
+ *
+ * Compara la aplicación sin métricas, con las métricas pero sin los histogramas de percentiles
+ * ({@code management.metrics.distribution.percentiles-histogram.*}) y con la configuración por defecto,
+ * que los publica para {@code http.server.requests} y {@code productos.servicio}.
+ * En una máquina con varios núcleos conviene repetirlo con {@code -Djmh.args="-t 8"}, para que también
+ * cuente la contención sobre los buckets del histograma.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MetricasHttpBenchmark {
+
+	@Param({"ninguna", "sin-histogramas", "con-histogramas"})
+	String instrumentacion;
+
+	private ConfigurableApplicationContext contexto;
+	private HttpClient cliente;
+	private String base;
+	private long[] ids;
+
+	@Setup
+	public void preparar() {
+		boolean metricas = !"ninguna".equals(instrumentacion);
+		boolean histogramas = "con-histogramas".equals(instrumentacion);
+		contexto = ContextoBenchmark.iniciarServidor(true,
+				"productos.metricas.servicio.enabled=" + metricas,
+				"spring.jpa.properties.hibernate.generate_statistics=" + metricas,
+				"management.metrics.enable.all=" + metricas,
+				"management.metrics.distribution.percentiles-histogram.http.server.requests=" + histogramas,
+				"management.metrics.distribution.percentiles-histogram.productos.servicio=" + histogramas,
+				// Sin límites de admisión: la comparación es de la instrumentación, no del control de carga
+				"productos.admision.enabled=false");
+		int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+		base = "http://localhost:" + puerto + "/api/productos";
+		cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		ids = ContextoBenchmark.sembrar(contexto, 1000);
+	}
+
+	@TearDown
+	public void cerrar() {
+		cliente.close();
+		contexto.close();
+	}
+
+	/** Acierto de cache: casi todo el tiempo es HTTP y serialización, donde la instrumentación pesa más. */
+	@Benchmark
+	public String obtenerPorId() throws IOException, InterruptedException {
+		return get("/" + ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+	}
+
+	@Benchmark
+	public String listar() throws IOException, InterruptedException {
+		return get("?after=" + ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+	}
+
+	private String get(String ruta) throws IOException, InterruptedException {
+		HttpResponse<String> respuesta = cliente.send(HttpRequest.newBuilder(URI.create(base + ruta)).build(),
+				HttpResponse.BodyHandlers.ofString());
+		if (respuesta.statusCode() != 200) {
+			throw new IllegalStateException("GET " + ruta + " respondió " + respuesta.statusCode());
+		}
+		return respuesta.body();
+	}
+}
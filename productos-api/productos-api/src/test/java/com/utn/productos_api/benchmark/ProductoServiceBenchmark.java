@@ -0,0 +1,141 @@
+package com.utn.productos_api.benchmark;
+
+import com.utn.productos_api.dto.BusquedaDTO;
+import com.utn.productos_api.dto.CambiosDTO;
+import com.utn.productos_api.dto.PaginaDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.model.Producto;
+import com.utn.productos_api.repository.ProductoRepository;
+import com.utn.productos_api.repository.ProductoSpecifications;
+import com.utn.productos_api.service.CambiosService;
+import com.utn.productos_api.service.IndiceBusquedaProductos;
+import com.utn.productos_api.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones de lectura de {@link ProductoService} contra una base H2 sembrada con el catálogo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductoServiceBenchmark {
+
+	@Param({"1000", "10000"})
+	int tamanioCatalogo;
+
+	private ConfigurableApplicationContext contexto;
+	private ProductoService productoService;
+	private ProductoRepository productoRepository;
+	private IndiceBusquedaProductos indiceBusqueda;
+	private CambiosService cambiosService;
+	private long[] ids;
+
+	@Setup
+	public void preparar() {
+		contexto = ContextoBenchmark.iniciar();
+		productoService = contexto.getBean(ProductoService.class);
+		productoRepository = contexto.getBean(ProductoRepository.class);
+		indiceBusqueda = contexto.getBean(IndiceBusquedaProductos.class);
+		cambiosService = contexto.getBean(CambiosService.class);
+		ids = ContextoBenchmark.sembrar(contexto, tamanioCatalogo);
+	}
+
+	@TearDown
+	public void cerrar() {
+		contexto.close();
+	}
+
+	private long idAlAzar() {
+		return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+	}
+
+	private Categoria categoriaAlAzar() {
+		Categoria[] categorias = Categoria.values();
+		return categorias[ThreadLocalRandom.current().nextInt(categorias.length)];
+	}
+
+	@Benchmark
+	public ProductoResponseDTO obtenerPorId() {
+		return productoService.obtenerPorId(idAlAzar());
+	}
+
+	@Benchmark
+	public PaginaDTO<ProductoResponseDTO> obtenerPagina() {
+		return productoService.obtenerPagina(idAlAzar(), null, ProductoService.LIMITE_PAGINA_POR_DEFECTO);
+	}
+
+	@Benchmark
+	public List<ProductoResponseDTO> obtenerPorCategoria() {
+		return productoService.obtenerPorCategoria(categoriaAlAzar());
+	}
+
+	/** Lectura del catálogo completo con proyección directa a DTO. */
+	@Benchmark
+	public List<ProductoResponseDTO> obtenerTodosProyeccion() {
+		return productoService.obtenerTodos();
+	}
+
+	/** Lectura del catálogo completo cargando entidades administradas y convirtiéndolas después. */
+	@Benchmark
+	public List<ProductoResponseDTO> obtenerTodosEntidades() {
+		return productoRepository.findAll().stream().map(ProductoResponseDTO::fromEntity).toList();
+	}
+
+	/** Filtrado con proyección directa a DTO. */
+	@Benchmark
+	public List<ProductoResponseDTO> filtrar() {
+		return productoService.filtrar(categoriaAlAzar(), 100.0, 200.0, null, null, Sort.by("precio"),
+				ProductoService.LIMITE_PAGINA_MAXIMO);
+	}
+
+	/** El mismo filtrado cargando entidades administradas y convirtiéndolas después. */
+	@Benchmark
+	public List<ProductoResponseDTO> filtrarEntidades() {
+		Specification<Producto> filtro = Specification.where(ProductoSpecifications.conCategoria(categoriaAlAzar()))
+				.and(ProductoSpecifications.precioDesde(100.0))
+				.and(ProductoSpecifications.precioHasta(200.0));
+		return productoRepository.findBy(filtro, consulta -> consulta.sortBy(Sort.by("precio", "id"))
+						.limit(ProductoService.LIMITE_PAGINA_MAXIMO).all())
+				.stream().map(ProductoResponseDTO::fromEntity).toList();
+	}
+
+	/** Una página completa del feed de cambios a partir de una versión al azar. */
+	@Benchmark
+	public CambiosDTO obtenerCambios() {
+		return cambiosService.obtenerCambios(ThreadLocalRandom.current().nextLong(ids.length),
+				ProductoService.LIMITE_PAGINA_MAXIMO);
+	}
+
+	@Benchmark
+	public BusquedaDTO buscar() {
+		return indiceBusqueda.buscar("note", null, IndiceBusquedaProductos.LIMITE_POR_DEFECTO);
+	}
+
+	@Benchmark
+	public void exportarCatalogo(Blackhole blackhole) {
+		productoService.exportarCatalogo(blackhole::consume);
+	}
+}
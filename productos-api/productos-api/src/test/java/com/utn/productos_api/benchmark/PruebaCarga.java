@@ -0,0 +1,339 @@
+package com.utn.productos_api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.model.Categoria;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga HTTP de punta a punta contra la aplicación levantada en un puerto al azar.
+ *
+ * Modelo abierto: las peticiones se disparan a la tasa configurada sin esperar las respuestas,
+ * y la latencia se mide desde el instante en que cada petición <em>debía</em> salir, así una
+ * pausa del servidor no esconde la espera de las peticiones que se atrasaron (omisión coordinada).
+ * Cada operación registra su propio histograma HDR y el resultado se guarda en un reporte JSON.
+ *
+ * Uso: {@code mvn -Pcarga test -Dcarga.args="escenario=mixto tasa=500 duracion=30s"}.
+ * Los argumentos con formato {@code --clave=valor} se pasan a la aplicación, por ejemplo
+ * {@code --spring.profiles.active=virtual} para comparar con el modo de hilos virtuales.
+ * Por defecto el logging de la aplicación se silencia; con {@code logs=app} se usa su configuración
+ * (así se compara el perfil por defecto, que loguea cada SQL, con {@code --spring.profiles.active=prod}).
+ */
+public final class PruebaCarga {
+
+	enum Operacion {
+		LISTAR, OBTENER, OBTENER_INEXISTENTE, CATEGORIA, CREAR, ACTUALIZAR, STOCK, ELIMINAR, DECREMENTAR, INCREMENTAR,
+		EXPORTAR, AJUSTE_MASIVO
+	}
+
+	/** Mezclas predefinidas: peso relativo de cada operación. */
+	private static final Map<String, String> ESCENARIOS = Map.of(
+			"mixto", "listar:15,obtener:40,categoria:15,crear:10,actualizar:8,stock:7,eliminar:5",
+			"lectura", "listar:20,obtener:60,categoria:20",
+			// Contención sobre el stock de un único producto
+			"hotkey", "decrementar:50,incrementar:50",
+			// Tráfico dominado por 404 (scrapers, enlaces viejos)
+			"noencontrado", "obtener_inexistente:90,obtener:10",
+			// Lecturas mezcladas con trabajos masivos; pensado para tasas por encima de la capacidad
+			// y comparar con y sin control de admisión (--productos.admision.enabled=false)
+			"sobrecarga", "obtener:60,listar:15,categoria:10,stock:10,exportar:2,ajuste_masivo:3");
+
+	private static final long LATENCIA_MAXIMA_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+	private final HttpClient cliente = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	private final Map<Operacion, Estadistica> estadisticas = new EnumMap<>(Operacion.class);
+	private final Queue<Long> eliminables = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pendientes = new AtomicInteger();
+	private final LongAdder descartadas = new LongAdder();
+	private volatile boolean registrando;
+
+	private String base;
+	private long[] ids;
+	private long idCaliente;
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> opciones = new LinkedHashMap<>();
+		List<String> propiedadesApp = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--")) {
+				propiedadesApp.add(arg.substring(2));
+			} else if (arg.contains("=")) {
+				opciones.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+			}
+		}
+		new PruebaCarga().ejecutar(opciones, propiedadesApp);
+		System.exit(0);
+	}
+
+	private void ejecutar(Map<String, String> opciones, List<String> propiedadesApp) throws Exception {
+		String escenario = opciones.getOrDefault("escenario", "mixto");
+		String mezcla = opciones.getOrDefault("mezcla", ESCENARIOS.get(escenario));
+		if (mezcla == null) {
+			throw new IllegalArgumentException("Escenario desconocido: " + escenario + " (opciones: " + ESCENARIOS.keySet() + ")");
+		}
+		int tasa = Integer.parseInt(opciones.getOrDefault("tasa", "500"));
+		Duration duracion = Duration.parse("PT" + opciones.getOrDefault("duracion", "30s").toUpperCase());
+		Duration calentamiento = Duration.parse("PT" + opciones.getOrDefault("calentamiento", "10s").toUpperCase());
+		int catalogo = Integer.parseInt(opciones.getOrDefault("catalogo", "10000"));
+		int maximoPendientes = Integer.parseInt(opciones.getOrDefault("maximo-pendientes", "10000"));
+		boolean poisson = "poisson".equals(opciones.getOrDefault("llegadas", "poisson"));
+		boolean silenciarLogs = !"app".equals(opciones.getOrDefault("logs", "silenciados"));
+		Path salida = Path.of(opciones.getOrDefault("salida", "target/carga/" + escenario + "-"
+				+ LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json"));
+
+		Operacion[] sorteo = armarSorteo(mezcla);
+		for (Operacion operacion : Operacion.values()) {
+			estadisticas.put(operacion, new Estadistica());
+		}
+
+		try (ConfigurableApplicationContext contexto = ContextoBenchmark.iniciarServidor(silenciarLogs,
+				propiedadesApp.toArray(String[]::new))) {
+			int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			base = "http://localhost:" + puerto + "/api/productos";
+			ids = ContextoBenchmark.sembrar(contexto, catalogo);
+			idCaliente = ids[0];
+			enviar(Operacion.STOCK, HttpRequest.newBuilder(URI.create(base + "/" + idCaliente + "/stock"))
+					.method("PATCH", cuerpo(Map.of("stock", 1_000_000))), System.nanoTime());
+
+			System.out.printf("Escenario '%s' (%s) a %d req/s contra el puerto %d, catálogo de %d productos%n",
+					escenario, mezcla, tasa, puerto, catalogo);
+			generar(sorteo, tasa, calentamiento, maximoPendientes, poisson);
+			// Las respuestas del calentamiento no se registran
+			esperarPendientes();
+			descartadas.reset();
+			registrando = true;
+			long inicio = System.nanoTime();
+			generar(sorteo, tasa, duracion, maximoPendientes, poisson);
+			esperarPendientes();
+			double segundos = (System.nanoTime() - inicio) / 1e9;
+			registrando = false;
+
+			Map<String, Object> reporte = new LinkedHashMap<>();
+			reporte.put("escenario", escenario);
+			reporte.put("fecha", LocalDateTime.now().toString());
+			reporte.put("configuracion", Map.of(
+					"mezcla", mezcla, "tasaObjetivo", tasa, "duracionSegundos", duracion.toSeconds(),
+					"catalogo", catalogo, "llegadas", poisson ? "poisson" : "constante", "logsSilenciados", silenciarLogs,
+					"propiedadesApp", propiedadesApp));
+			reporte.put("descartadasPorSaturacion", descartadas.sum());
+			Histogram total = new Histogram(LATENCIA_MAXIMA_NANOS, 3);
+			Map<String, Object> porOperacion = new LinkedHashMap<>();
+			for (Map.Entry<Operacion, Estadistica> entrada : estadisticas.entrySet()) {
+				Estadistica estadistica = entrada.getValue();
+				if (estadistica.enviadas.sum() > 0) {
+					Histogram histograma = estadistica.recorder.getIntervalHistogram();
+					total.add(histograma);
+					porOperacion.put(entrada.getKey().name().toLowerCase(), resumen(histograma, estadistica, segundos));
+				}
+			}
+			reporte.put("operaciones", porOperacion);
+			reporte.put("total", resumenHistograma(total, segundos));
+
+			Files.createDirectories(salida.toAbsolutePath().getParent());
+			objectMapper.writeValue(salida.toFile(), reporte);
+			System.out.println(objectMapper.writeValueAsString(porOperacion));
+			System.out.println("Reporte guardado en " + salida.toAbsolutePath());
+		}
+	}
+
+	private static Operacion[] armarSorteo(String mezcla) {
+		List<Operacion> sorteo = new ArrayList<>();
+		for (String parte : mezcla.split(",")) {
+			String[] nombreYPeso = parte.trim().split(":");
+			Operacion operacion = Operacion.valueOf(nombreYPeso[0].trim().toUpperCase());
+			for (int i = 0; i < Integer.parseInt(nombreYPeso[1].trim()); i++) {
+				sorteo.add(operacion);
+			}
+		}
+		return sorteo.toArray(Operacion[]::new);
+	}
+
+	/**
+	 * Dispara peticiones durante {@code duracion}. Cada llegada tiene un instante programado
+	 * que no depende de cuándo terminaron las anteriores.
+	 */
+	private void generar(Operacion[] sorteo, int tasa, Duration duracion, int maximoPendientes, boolean poisson) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		double intervaloMedio = 1e9 / tasa;
+		long inicio = System.nanoTime();
+		long fin = inicio + duracion.toNanos();
+		double programado = inicio;
+		while (programado < fin) {
+			long espera = (long) programado - System.nanoTime();
+			if (espera > 0) {
+				LockSupport.parkNanos(espera);
+			}
+			if (pendientes.get() >= maximoPendientes) {
+				descartadas.increment();
+			} else {
+				disparar(sorteo[random.nextInt(sorteo.length)], (long) programado);
+			}
+			programado += poisson ? -Math.log(1 - random.nextDouble()) * intervaloMedio : intervaloMedio;
+		}
+	}
+
+	private void disparar(Operacion operacion, long programado) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long id = ids[random.nextInt(ids.length)];
+		HttpRequest.Builder peticion = switch (operacion) {
+			case LISTAR -> HttpRequest.newBuilder(URI.create(base + "?after=" + id + "&limit=50")).GET();
+			case OBTENER -> HttpRequest.newBuilder(URI.create(base + "/" + id)).GET();
+			case OBTENER_INEXISTENTE -> HttpRequest.newBuilder(URI.create(base + "/" + (Long.MAX_VALUE - id))).GET();
+			case CATEGORIA -> {
+				Categoria categoria = Categoria.values()[random.nextInt(Categoria.values().length)];
+				yield HttpRequest.newBuilder(URI.create(base + "/categoria/" + categoria + "?limit=50")).GET();
+			}
+			// Se crean sin stock para que después se puedan eliminar
+			case CREAR -> HttpRequest.newBuilder(URI.create(base)).POST(cuerpo(
+					new ProductoDTO("Producto de carga " + random.nextInt(), null, 10.0, 0, Categoria.HOGAR)));
+			case ACTUALIZAR -> HttpRequest.newBuilder(URI.create(base + "/" + id)).PUT(cuerpo(
+					new ProductoDTO("Producto actualizado " + id, "Actualizado por la prueba de carga",
+							1 + random.nextInt(100_000) / 100.0, random.nextInt(500), Categoria.values()[(int) (id % 5)])));
+			case STOCK -> HttpRequest.newBuilder(URI.create(base + "/" + id + "/stock"))
+					.method("PATCH", cuerpo(Map.of("stock", random.nextInt(500))));
+			case ELIMINAR -> {
+				Long eliminable = eliminables.poll();
+				if (eliminable == null) {
+					// Todavía no hay productos sin stock creados por la prueba: se crea uno en su lugar
+					yield null;
+				}
+				yield HttpRequest.newBuilder(URI.create(base + "/" + eliminable)).DELETE();
+			}
+			case DECREMENTAR -> HttpRequest.newBuilder(URI.create(base + "/" + idCaliente + "/stock/decrementar"))
+					.POST(cuerpo(Map.of("cantidad", 1)));
+			case INCREMENTAR -> HttpRequest.newBuilder(URI.create(base + "/" + idCaliente + "/stock/incrementar"))
+					.POST(cuerpo(Map.of("cantidad", 1)));
+			case EXPORTAR -> HttpRequest.newBuilder(URI.create(base + "/export")).GET();
+			case AJUSTE_MASIVO -> {
+				List<Map<String, Object>> ajustes = new ArrayList<>();
+				for (int i = 0; i < 200; i++) {
+					ajustes.add(Map.of("id", ids[random.nextInt(ids.length)], "delta", 1));
+				}
+				yield HttpRequest.newBuilder(URI.create(base + "/stock/bulk")).POST(cuerpo(ajustes));
+			}
+		};
+		if (peticion == null) {
+			disparar(Operacion.CREAR, programado);
+			return;
+		}
+		enviar(operacion, peticion, programado);
+	}
+
+	private void enviar(Operacion operacion, HttpRequest.Builder peticion, long programado) {
+		Estadistica estadistica = estadisticas.get(operacion);
+		pendientes.incrementAndGet();
+		cliente.sendAsync(peticion.header("Content-Type", "application/json").timeout(Duration.ofSeconds(30)).build(),
+						HttpResponse.BodyHandlers.ofString())
+				.whenComplete((respuesta, error) -> {
+					long latencia = Math.min(System.nanoTime() - programado, LATENCIA_MAXIMA_NANOS);
+					pendientes.decrementAndGet();
+					int codigo = error != null ? -1 : respuesta.statusCode();
+					if (operacion == Operacion.CREAR && codigo == 201) {
+						eliminables.add(idCreado(respuesta.body()));
+					}
+					if (!registrando) {
+						return;
+					}
+					estadistica.recorder.recordValue(latencia);
+					estadistica.enviadas.increment();
+					estadistica.codigos.computeIfAbsent(codigo, c -> new LongAdder()).increment();
+					if (codigo < 200 || codigo >= 300) {
+						estadistica.errores.increment();
+					}
+				});
+	}
+
+	private Long idCreado(String cuerpo) {
+		try {
+			return objectMapper.readTree(cuerpo).get("id").asLong();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private HttpRequest.BodyPublisher cuerpo(Object valor) {
+		try {
+			return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(valor));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void esperarPendientes() {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (pendientes.get() > 0 && System.nanoTime() < limite) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+	}
+
+	private static Map<String, Object> resumen(Histogram histograma, Estadistica estadistica, double segundos) {
+		Map<String, Object> resumen = resumenHistograma(histograma, segundos);
+		long enviadas = estadistica.enviadas.sum();
+		resumen.put("errores", estadistica.errores.sum());
+		resumen.put("tasaError", enviadas == 0 ? 0.0 : (double) estadistica.errores.sum() / enviadas);
+		Map<Integer, Long> codigos = new TreeMap<>();
+		estadistica.codigos.forEach((codigo, cantidad) -> codigos.put(codigo, cantidad.sum()));
+		resumen.put("codigos", codigos);
+		return resumen;
+	}
+
+	private static Map<String, Object> resumenHistograma(Histogram histograma, double segundos) {
+		Map<String, Object> resumen = new LinkedHashMap<>();
+		resumen.put("peticiones", histograma.getTotalCount());
+		resumen.put("throughput", histograma.getTotalCount() / segundos);
+		resumen.put("p50Ms", milis(histograma.getValueAtPercentile(50)));
+		resumen.put("p90Ms", milis(histograma.getValueAtPercentile(90)));
+		resumen.put("p99Ms", milis(histograma.getValueAtPercentile(99)));
+		resumen.put("p999Ms", milis(histograma.getValueAtPercentile(99.9)));
+		resumen.put("maxMs", milis(histograma.getMaxValue()));
+		resumen.put("mediaMs", histograma.getTotalCount() == 0 ? 0.0 : histograma.getMean() / 1e6);
+		return resumen;
+	}
+
+	private static double milis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	private static final class Estadistica {
+		private final Recorder recorder = new Recorder(LATENCIA_MAXIMA_NANOS, 3);
+		private final LongAdder enviadas = new LongAdder();
+		private final LongAdder errores = new LongAdder();
+		private final Map<Integer, LongAdder> codigos = new ConcurrentHashMap<>();
+	}
+}
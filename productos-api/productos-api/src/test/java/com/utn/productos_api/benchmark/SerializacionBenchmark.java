@@ -0,0 +1,82 @@
+package com.utn.productos_api.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de listas grandes de {@link ProductoResponseDTO}, con un ObjectMapper
+ * configurado como el de Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	int tamanioCatalogo;
+
+	private ObjectMapper objectMapper;
+	private ObjectWriter writerTipado;
+	private List<ProductoResponseDTO> productos;
+
+	@Setup
+	public void preparar() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		writerTipado = objectMapper.writerFor(new TypeReference<List<ProductoResponseDTO>>() { });
+		List<ProductoDTO> dtos = ContextoBenchmark.catalogo(tamanioCatalogo, 42);
+		productos = new ArrayList<>(dtos.size());
+		for (int i = 0; i < dtos.size(); i++) {
+			ProductoDTO dto = dtos.get(i);
+			productos.add(new ProductoResponseDTO((long) i + 1, dto.getNombre(), dto.getDescripcion(),
+					dto.getPrecio(), dto.getStock(), dto.getCategoria()));
+		}
+	}
+
+	/** Lo que hace el conversor de Spring MVC al devolver la lista completa. */
+	@Benchmark
+	public byte[] listaCompleta() throws IOException {
+		return objectMapper.writeValueAsBytes(productos);
+	}
+
+	@Benchmark
+	public byte[] listaConWriterTipado() throws IOException {
+		return writerTipado.writeValueAsBytes(productos);
+	}
+
+	/** Mismo esquema que GET /api/productos/export: un objeto por línea sobre un único generador. */
+	@Benchmark
+	public void ndjson() throws IOException {
+		try (JsonGenerator generador = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+			generador.setRootValueSeparator(null);
+			for (ProductoResponseDTO producto : productos) {
+				objectMapper.writeValue(generador, producto);
+				generador.writeRaw('\n');
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.utn.productos_api.benchmark;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ResultadoImportacionDTO;
+import com.utn.productos_api.service.ImportacionService;
+import com.utn.productos_api.service.SnapshotCatalogo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga del catálogo en una base vacía: restaurar el snapshot binario ({@link SnapshotCatalogo})
+ * frente a reimportarlo con {@link ImportacionService}.
+ *
+ * Cada invocación parte de las tablas vacías, por eso se mide en modo SingleShotTime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotBenchmark {
+
+	@Param({"10000", "100000"})
+	int filas;
+
+	private ConfigurableApplicationContext contexto;
+	private SnapshotCatalogo snapshotCatalogo;
+	private ImportacionService importacionService;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+	private List<ProductoDTO> productos;
+	private Path archivo;
+
+	@Setup
+	public void preparar() throws IOException {
+		contexto = ContextoBenchmark.iniciar();
+		snapshotCatalogo = contexto.getBean(SnapshotCatalogo.class);
+		importacionService = contexto.getBean(ImportacionService.class);
+		jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+		transactionTemplate = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+		productos = ContextoBenchmark.catalogo(filas, 7);
+		importacionService.importar(productos.iterator());
+		archivo = Files.createTempFile("catalogo", ".snap");
+		snapshotCatalogo.escribir(archivo);
+	}
+
+	@Setup(Level.Invocation)
+	public void vaciar() {
+		transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("delete from producto"));
+	}
+
+	@TearDown
+	public void cerrar() throws IOException {
+		contexto.close();
+		Files.deleteIfExists(archivo);
+	}
+
+	@Benchmark
+	public long restaurarSnapshot() throws IOException {
+		return snapshotCatalogo.restaurar(SnapshotCatalogo.mapear(archivo));
+	}
+
+	@Benchmark
+	public ResultadoImportacionDTO reimportar() {
+		return importacionService.importar(productos.iterator());
+	}
+}
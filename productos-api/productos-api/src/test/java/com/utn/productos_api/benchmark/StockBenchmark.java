@@ -0,0 +1,63 @@
+package com.utn.productos_api.benchmark;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajustes de stock concurrentes sobre un mismo producto "caliente": UPDATE condicional
+ * en la base frente al ledger en memoria con escritura diferida.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class StockBenchmark {
+
+	@Param({"false", "true"})
+	boolean ledger;
+
+	private ConfigurableApplicationContext contexto;
+	private ProductoService productoService;
+	private Long id;
+
+	@Setup
+	public void preparar() {
+		contexto = ContextoBenchmark.iniciar("productos.stock.ledger.enabled=" + ledger);
+		productoService = contexto.getBean(ProductoService.class);
+		id = productoService.crearProducto(
+				new ProductoDTO("Producto caliente", null, 10.0, 1_000_000, Categoria.ELECTRONICA)).getId();
+	}
+
+	@TearDown
+	public void cerrar() {
+		contexto.close();
+	}
+
+	/** Un decremento seguido de su reposición, para que el stock no se agote durante la medición. */
+	@Benchmark
+	public void decrementarEIncrementar(Blackhole blackhole) {
+		blackhole.consume(productoService.decrementarStock(id, 1));
+		blackhole.consume(productoService.incrementarStock(id, 1));
+	}
+}
@@ -0,0 +1,61 @@
+package com.utn.productos_api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class AdmisionInterceptorTests {
+
+	@Autowired
+	@Qualifier("requestMappingHandlerMapping")
+	private RequestMappingHandlerMapping handlerMapping;
+
+	@Test
+	void clasificaPorElMetodoQueAtiendeLaPeticion() throws Exception {
+		assertEquals("lectura", clase(new MockHttpServletRequest("GET", "/api/productos/1")));
+		assertEquals("lectura", clase(json("POST", "/api/productos/multi")));
+		assertEquals("escritura", clase(json("PUT", "/api/productos/1")));
+		assertEquals("escritura", clase(json("POST", "/api/productos/1/stock/decrementar")));
+		assertEquals("masivo", clase(json("POST", "/api/productos/bulk")));
+		assertEquals("masivo", clase(json("POST", "/api/productos/stock/bulk")));
+		assertEquals("masivo", clase(new MockHttpServletRequest("GET", "/api/productos/export")));
+		assertEquals("masivo", clase(new MockHttpServletRequest("POST", "/api/productos/agregados/reconciliacion")));
+		assertEquals("lectura", clase(new MockHttpServletRequest("GET", "/api/productos/agregados/reconciliacion")));
+	}
+
+	// Clase del límite en el que el interceptor tomó lugar para la petición
+	private String clase(MockHttpServletRequest request) throws Exception {
+		LimiteConcurrencia lecturas = new LimiteConcurrencia("lectura", 10, 1, 10, new SimpleMeterRegistry());
+		LimiteConcurrencia escrituras = new LimiteConcurrencia("escritura", 10, 1, 10, new SimpleMeterRegistry());
+		LimiteConcurrencia masivos = new LimiteConcurrencia("masivo", 10, 1, 10, new SimpleMeterRegistry());
+		AdmisionInterceptor interceptor = new AdmisionInterceptor(lecturas, escrituras, masivos, 0.8, Duration.ofSeconds(1));
+
+		ServletRequestPathUtils.parseAndCache(request);
+		Object handler = handlerMapping.getHandler(request).getHandler();
+		interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+		return Stream.of(lecturas, escrituras, masivos)
+				.filter(limite -> limite.getEnCurso() == 1)
+				.map(LimiteConcurrencia::getClase)
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static MockHttpServletRequest json(String metodo, String uri) {
+		MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		return request;
+	}
+}
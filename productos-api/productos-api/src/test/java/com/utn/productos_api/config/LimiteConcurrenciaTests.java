@@ -0,0 +1,103 @@
+package com.utn.productos_api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimiteConcurrenciaTests {
+
+	private static final long MILISEGUNDO = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void rechazaPorEncimaDelLimite() {
+		LimiteConcurrencia limite = new LimiteConcurrencia("prueba", 2, 1, 10, new SimpleMeterRegistry());
+
+		assertTrue(limite.intentarAdquirir());
+		assertTrue(limite.intentarAdquirir());
+		assertFalse(limite.intentarAdquirir());
+		limite.liberar(MILISEGUNDO);
+		assertTrue(limite.intentarAdquirir());
+	}
+
+	@Test
+	void bajaCuandoSubeLaLatenciaYVuelveASubirCuandoSeNormaliza() {
+		LimiteConcurrencia limite = new LimiteConcurrencia("prueba", 20, 2, 100, new SimpleMeterRegistry());
+		int inicial = limite.getLimite();
+
+		saturarYLiberar(limite, 200, MILISEGUNDO);
+		int sinCola = limite.getLimite();
+		assertTrue(sinCola > inicial);
+		assertFalse(limite.isCongestionado());
+
+		saturar(limite, 200, 20 * MILISEGUNDO);
+		assertTrue(limite.getLimite() < sinCola);
+		assertTrue(limite.isCongestionado());
+		vaciar(limite, 20 * MILISEGUNDO);
+		assertFalse(limite.isCongestionado());
+
+		int congestionado = limite.getLimite();
+		saturarYLiberar(limite, 2_000, MILISEGUNDO);
+		assertTrue(limite.getLimite() > congestionado);
+		assertEquals(0, limite.getEnCurso());
+	}
+
+	@Test
+	void unaLecturaLentaSinCargaNoDejaCongestionado() throws NoSuchMethodException {
+		LimiteConcurrencia lecturas = new LimiteConcurrencia("lectura", 20, 2, 100, new SimpleMeterRegistry());
+		LimiteConcurrencia masivos = new LimiteConcurrencia("masivo", 2, 1, 4, new SimpleMeterRegistry());
+		AdmisionInterceptor interceptor = new AdmisionInterceptor(lecturas,
+				new LimiteConcurrencia("escritura", 20, 2, 100, new SimpleMeterRegistry()), masivos, 0.8, Duration.ofSeconds(1));
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(lecturas.intentarAdquirir());
+			lecturas.liberar(MILISEGUNDO);
+		}
+		// Un fallo de cache después de muchos aciertos, y después nada más
+		assertTrue(lecturas.intentarAdquirir());
+		lecturas.liberar(50 * MILISEGUNDO);
+		assertFalse(lecturas.isCongestionado());
+
+		assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/productos/export"),
+				new MockHttpServletResponse(), new HandlerMethod(new Endpoints(), "exportar")));
+		assertEquals(1, masivos.getEnCurso());
+	}
+
+	private static class Endpoints {
+		@ClaseAdmision(ClaseAdmision.Clase.MASIVO)
+		public void exportar() {
+		}
+	}
+
+	// Mantiene el límite lleno y libera las peticiones de a una con la latencia indicada
+	private static void saturarYLiberar(LimiteConcurrencia limite, int muestras, long rttNanos) {
+		saturar(limite, muestras, rttNanos);
+		vaciar(limite, rttNanos);
+	}
+
+	private static void saturar(LimiteConcurrencia limite, int muestras, long rttNanos) {
+		for (int i = 0; i < muestras; i++) {
+			while (limite.intentarAdquirir()) {
+				// llena los lugares libres
+			}
+			limite.liberar(rttNanos);
+		}
+		while (limite.intentarAdquirir()) {
+			// deja el límite lleno
+		}
+	}
+
+	private static void vaciar(LimiteConcurrencia limite, long rttNanos) {
+		while (limite.getEnCurso() > 0) {
+			limite.liberar(rttNanos);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.utn.productos_api.config;
+
+import com.utn.productos_api.dto.CambiosDTO;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.model.Producto;
+import com.utn.productos_api.model.ProductoEliminado;
+import com.utn.productos_api.service.CambiosService;
+import com.utn.productos_api.service.ProductoService;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// La réplica tiene el esquema pero nunca recibe datos: representa una réplica todo lo atrasada que se quiera
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:atrasadadb")
+@ActiveProfiles("replicas")
+class ReplicaAtrasadaTests {
+
+	private static final String URL_REPLICA = "jdbc:h2:mem:atrasada_replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private CambiosService cambiosService;
+
+	// Corre antes de crear el contexto: las lecturas del arranque ya van a la réplica
+	@DynamicPropertySource
+	static void replica(DynamicPropertyRegistry registry) {
+		StandardServiceRegistry servicios = new StandardServiceRegistryBuilder()
+				.applySetting(AvailableSettings.URL, URL_REPLICA)
+				.applySetting(AvailableSettings.USER, "sa")
+				.applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+				.applySetting(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName())
+				.applySetting(AvailableSettings.JAKARTA_HBM2DDL_DATABASE_ACTION, "create")
+				.build();
+		try {
+			new MetadataSources(servicios)
+					.addAnnotatedClass(Producto.class)
+					.addAnnotatedClass(ProductoEliminado.class)
+					.buildMetadata()
+					.buildSessionFactory()
+					.close();
+		} finally {
+			StandardServiceRegistryBuilder.destroy(servicios);
+		}
+		registry.add("productos.replicas.urls", () -> URL_REPLICA);
+	}
+
+	@Test
+	void elFeedDeCambiosNoSeAdelantaAUnaReplicaAtrasada() {
+		assertTrue(productoService.obtenerTodos().isEmpty());
+
+		ProductoResponseDTO creado = productoService.crearProducto(
+				new ProductoDTO("Producto sin replicar", null, 10.0, 5, Categoria.HOGAR));
+		// La réplica todavía no lo tiene
+		assertTrue(productoService.obtenerTodos().isEmpty());
+
+		CambiosDTO cambios = cambiosService.obtenerCambios(0, 10);
+		assertEquals(1, cambios.getCambios().size());
+		assertEquals(creado.getId(), cambios.getCambios().get(0).getId());
+		assertEquals(cambios.getCambios().get(0).getVersion(), cambios.getUltimaVersion());
+	}
+}
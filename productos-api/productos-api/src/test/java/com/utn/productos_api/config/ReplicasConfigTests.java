@@ -0,0 +1,89 @@
+package com.utn.productos_api.config;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.service.ProductoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Base propia para no compartir la H2 en memoria con los contextos de las demás pruebas
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:replicasdb",
+		"productos.replicas.urls=jdbc:h2:mem:replicasdb,jdbc:h2:mem:replicasdb"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("replicas")
+class ReplicasConfigTests {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void lasTransaccionesDeSoloLecturaVanALasReplicas() {
+		assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+
+		double escrituras = conexiones("primario", "escritura");
+		productoService.crearProducto(new ProductoDTO("Producto replicado", null, 10.0, 5, Categoria.HOGAR));
+		assertTrue(conexiones("primario", "escritura") > escrituras);
+
+		double lecturas = conexiones("replica-1", "lectura") + conexiones("replica-2", "lectura");
+		productoService.obtenerTodos();
+		productoService.obtenerTodos();
+		assertEquals(lecturas + 2, conexiones("replica-1", "lectura") + conexiones("replica-2", "lectura"));
+		assertTrue(conexiones("replica-1", "lectura") > 0);
+		assertTrue(conexiones("replica-2", "lectura") > 0);
+	}
+
+	@Test
+	void despuesDeEscribirElClienteLeeDelPrimario() throws Exception {
+		Cookie escritura = mockMvc.perform(post("/api/productos").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nombre\": \"Producto recién creado\", \"precio\": 10.0, \"stock\": 5, \"categoria\": \"ROPA\"}"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getCookie("productos-escritura");
+		assertNotNull(escritura);
+
+		double propias = conexiones("primario", "lectura-propia");
+		mockMvc.perform(get("/api/productos").cookie(escritura)).andExpect(status().isOk());
+		assertEquals(propias + 1, conexiones("primario", "lectura-propia"));
+
+		double lecturas = conexiones("replica-1", "lectura") + conexiones("replica-2", "lectura");
+		mockMvc.perform(get("/api/productos")).andExpect(status().isOk());
+		assertEquals(lecturas + 1, conexiones("replica-1", "lectura") + conexiones("replica-2", "lectura"));
+	}
+
+	private double conexiones(String destino, String motivo) {
+		Counter contador = meterRegistry.find("productos.datasource.conexiones")
+				.tag("destino", destino)
+				.tag("motivo", motivo)
+				.counter();
+		return contador == null ? 0 : contador.count();
+	}
+}
@@ -0,0 +1,109 @@
+package com.utn.productos_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RuteoLecturaDataSourceTests {
+
+	private final List<HikariDataSource> pools = new ArrayList<>();
+
+	@AfterEach
+	void cerrar() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		RuteoLecturaDataSource.forzarPrimario(false);
+		pools.forEach(HikariDataSource::close);
+	}
+
+	@Test
+	void lecturasVanALasReplicasEnRoundRobinYEscriturasAlPrimario() throws SQLException {
+		RuteoLecturaDataSource ruteo = ruteo("jdbc:h2:mem:ruteo_r1", "jdbc:h2:mem:ruteo_r2");
+
+		assertEquals("RUTEO_PRIMARIO", base(ruteo));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertEquals(List.of("RUTEO_R1", "RUTEO_R2", "RUTEO_R1"), List.of(base(ruteo), base(ruteo), base(ruteo)));
+
+		RuteoLecturaDataSource.forzarPrimario(true);
+		assertEquals("RUTEO_PRIMARIO", base(ruteo));
+	}
+
+	@Test
+	void replicaCaidaSeSaltea() throws SQLException {
+		RuteoLecturaDataSource ruteo = ruteo("jdbc:h2:tcp://localhost:1/caida", "jdbc:h2:mem:ruteo_sana");
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertEquals("RUTEO_SANA", base(ruteo));
+		assertEquals("RUTEO_SANA", base(ruteo));
+	}
+
+	@Test
+	void replicaSinConexionesLibresNoSeDaDeBaja() throws SQLException {
+		RuteoLecturaDataSource ruteo = ruteo("jdbc:h2:mem:ruteo_llena", "jdbc:h2:mem:ruteo_libre");
+		HikariDataSource llena = pools.get(1);
+		llena.setMaximumPoolSize(1);
+		llena.setConnectionTimeout(250);
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try (Connection ocupada = ruteo.getConnection()) {
+			assertEquals("RUTEO_LLENA", base(ocupada));
+			assertEquals("RUTEO_LIBRE", base(ruteo));
+			// Le toca a la réplica llena: vence el timeout del pool y la lectura pasa a la otra
+			assertEquals("RUTEO_LIBRE", base(ruteo));
+		}
+		assertEquals(List.of("RUTEO_LLENA", "RUTEO_LIBRE"), List.of(base(ruteo), base(ruteo)));
+	}
+
+	@Test
+	void conCredencialesSeDelegaAlDestinoElegidoSinDarloDeBaja() throws SQLException {
+		RuteoLecturaDataSource ruteo = ruteo("jdbc:h2:mem:ruteo_credenciales");
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		// Hikari no acepta credenciales por conexión: el error es del pool elegido, no una réplica caída
+		assertThrows(SQLFeatureNotSupportedException.class, () -> ruteo.getConnection("sa", ""));
+		assertEquals("RUTEO_CREDENCIALES", base(ruteo));
+	}
+
+	private RuteoLecturaDataSource ruteo(String... urlsReplicas) {
+		HikariDataSource primario = pool("primario", "jdbc:h2:mem:ruteo_primario");
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (int i = 0; i < urlsReplicas.length; i++) {
+			replicas.add(pool("replica-" + (i + 1), urlsReplicas[i]));
+		}
+		return new RuteoLecturaDataSource(primario, replicas, new SimpleMeterRegistry());
+	}
+
+	private HikariDataSource pool(String nombre, String url) {
+		HikariDataSource pool = new HikariDataSource();
+		pool.setPoolName(nombre);
+		pool.setJdbcUrl(url + ";DB_CLOSE_DELAY=-1");
+		pool.setConnectionTimeout(2000);
+		pool.setInitializationFailTimeout(-1);
+		pools.add(pool);
+		return pool;
+	}
+
+	private static String base(RuteoLecturaDataSource ruteo) throws SQLException {
+		try (Connection conexion = ruteo.getConnection()) {
+			return base(conexion);
+		}
+	}
+
+	private static String base(Connection conexion) throws SQLException {
+		try (ResultSet rs = conexion.createStatement().executeQuery("select database()")) {
+			rs.next();
+			return rs.getString(1);
+		}
+	}
+}
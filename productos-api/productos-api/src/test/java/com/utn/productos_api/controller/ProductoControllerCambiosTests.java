@@ -0,0 +1,133 @@
+package com.utn.productos_api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utn.productos_api.dto.CambioProductoDTO;
+import com.utn.productos_api.dto.CambiosDTO;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.service.GeneradorVersionCambio;
+import com.utn.productos_api.service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductoControllerCambiosTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private GeneradorVersionCambio generadorVersionCambio;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void noSeAdelantaAUnaTransaccionAbierta() throws Exception {
+		long desde = generadorVersionCambio.versionSegura();
+		Long confirmado = crear("Confirmado antes");
+
+		CountDownLatch abierta = new CountDownLatch(1);
+		CountDownLatch confirmar = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Long> pendiente = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+			Long id = crear("Confirmado después");
+			abierta.countDown();
+			try {
+				assertTrue(confirmar.await(10, TimeUnit.SECONDS));
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			return id;
+		}));
+		assertTrue(abierta.await(10, TimeUnit.SECONDS));
+		// Confirmado con una versión mayor que la de la transacción abierta
+		Long posterior = crear("Confirmado durante");
+
+		CambiosDTO mientras = cambios(desde, 100);
+		assertEquals(List.of(confirmado), ids(mientras));
+		long versionConfirmado = mientras.getCambios().get(0).getVersion();
+		assertEquals(versionConfirmado, mientras.getUltimaVersion());
+		assertFalse(mientras.isHayMas());
+
+		confirmar.countDown();
+		Long id = pendiente.get(10, TimeUnit.SECONDS);
+		executor.shutdown();
+
+		CambiosDTO despues = cambios(mientras.getUltimaVersion(), 100);
+		assertEquals(List.of(id, posterior), ids(despues));
+		assertEquals(versionConfirmado + 1, despues.getCambios().get(0).getVersion());
+		assertEquals(despues.getCambios().get(1).getVersion(), despues.getUltimaVersion());
+	}
+
+	@Test
+	void paginaEntreModificadosYEliminados() throws Exception {
+		long desde = generadorVersionCambio.versionSegura();
+		Long primero = crear("Primero");
+		// Sin stock: solo así se puede eliminar
+		Long eliminado = productoService.crearProducto(new ProductoDTO("Eliminado", null, 10.0, 0, Categoria.ROPA)).getId();
+		Long tercero = crear("Tercero");
+		productoService.actualizarProducto(primero, new ProductoDTO("Primero renombrado", null, 10.0, 5, Categoria.ROPA));
+		productoService.eliminarProducto(eliminado);
+
+		CambiosDTO pagina = cambios(desde, 2);
+		assertEquals(List.of(tercero, primero), ids(pagina));
+		assertTrue(pagina.isHayMas());
+		assertEquals("Primero renombrado", pagina.getCambios().get(1).getProducto().getNombre());
+		assertEquals(pagina.getCambios().get(1).getVersion(), pagina.getUltimaVersion());
+
+		CambiosDTO siguiente = cambios(pagina.getUltimaVersion(), 2);
+		assertEquals(List.of(eliminado), ids(siguiente));
+		CambioProductoDTO baja = siguiente.getCambios().get(0);
+		assertEquals(CambioProductoDTO.Tipo.ELIMINADO, baja.getTipo());
+		assertNull(baja.getProducto());
+		assertFalse(siguiente.isHayMas());
+		assertEquals(baja.getVersion(), siguiente.getUltimaVersion());
+
+		CambiosDTO vacia = cambios(siguiente.getUltimaVersion(), 2);
+		assertTrue(vacia.getCambios().isEmpty());
+		assertEquals(siguiente.getUltimaVersion(), vacia.getUltimaVersion());
+	}
+
+	private Long crear(String nombre) {
+		return productoService.crearProducto(new ProductoDTO(nombre, null, 10.0, 5, Categoria.ROPA)).getId();
+	}
+
+	private CambiosDTO cambios(long desde, int limit) throws Exception {
+		String json = mockMvc.perform(get("/api/productos/changes").param("since", String.valueOf(desde))
+						.param("limit", String.valueOf(limit)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(json, CambiosDTO.class);
+	}
+
+	private static List<Long> ids(CambiosDTO cambios) {
+		return cambios.getCambios().stream().map(CambioProductoDTO::getId).toList();
+	}
+}
@@ -0,0 +1,93 @@
+package com.utn.productos_api.controller;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.model.Categoria;
+import com.utn.productos_api.service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductoControllerEtagTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Test
+	void respondeNoModificadoHastaQueCambiaElProducto() throws Exception {
+		Long id = productoService.crearProducto(
+				new ProductoDTO("Producto con ETag", null, 10.0, 5, Categoria.DEPORTES)).getId();
+		String etag = mockMvc.perform(get("/api/productos/{id}", id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String etagCategoria = mockMvc.perform(get("/api/productos/categoria/DEPORTES"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/productos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/productos/categoria/DEPORTES").header(HttpHeaders.IF_NONE_MATCH, etagCategoria))
+				.andExpect(status().isNotModified());
+
+		productoService.actualizarStock(id, 6);
+
+		String nuevo = mockMvc.perform(get("/api/productos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, nuevo);
+		mockMvc.perform(get("/api/productos/categoria/DEPORTES").header(HttpHeaders.IF_NONE_MATCH, etagCategoria))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void elEtagCorrespondeAlFormatoNegociado() throws Exception {
+		Long id = productoService.crearProducto(
+				new ProductoDTO("Producto en CBOR", null, 10.0, 5, Categoria.HOGAR)).getId();
+		String accept = "application/json;q=0.1, application/cbor";
+		String etag = mockMvc.perform(get("/api/productos/{id}", id).header(HttpHeaders.ACCEPT, accept))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertTrue(etag.endsWith(".cbor\""), etag);
+
+		mockMvc.perform(get("/api/productos/{id}", id).header(HttpHeaders.ACCEPT, accept)
+						.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+		mockMvc.perform(get("/api/productos/{id}", id).header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, */*")
+						.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void rechazaEscriturasSobreUnaVersionVieja() throws Exception {
+		Long id = productoService.crearProducto(
+				new ProductoDTO("Producto concurrido", null, 10.0, 5, Categoria.ROPA)).getId();
+		String etag = mockMvc.perform(get("/api/productos/{id}", id))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(patch("/api/productos/{id}/stock", id).header(HttpHeaders.IF_MATCH, etag)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"stock\": 7}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(patch("/api/productos/{id}/stock", id).header(HttpHeaders.IF_MATCH, etag)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"stock\": 8}"))
+				.andExpect(status().isPreconditionFailed());
+	}
+}
@@ -0,0 +1,35 @@
+package com.utn.productos_api.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica con EXPLAIN que los filtros de /filtrar por rango de precio y por stock máximo usan sus índices.
+ */
+@SpringBootTest
+class ProductoIndicesTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void elFiltroPorPrecioUsaSuIndice() {
+		assertUsaIndice("idx_producto_precio",
+				"select * from producto where precio between 100 and 200 order by precio, id");
+	}
+
+	@Test
+	void elFiltroPorStockUsaSuIndice() {
+		assertUsaIndice("idx_producto_stock",
+				"select * from producto where stock <= 5 order by stock, id");
+	}
+
+	private void assertUsaIndice(String indice, String consulta) {
+		String plan = jdbcTemplate.queryForObject("explain " + consulta, String.class);
+		assertTrue(plan.toLowerCase().contains(indice), () -> "Se esperaba " + indice + " en el plan:\n" + plan);
+	}
+}
@@ -0,0 +1,83 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.AjusteStockMasivoDTO;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ResultadoAjusteMasivoDTO;
+import com.utn.productos_api.dto.ResultadoAjusteStockDTO.Estado;
+import com.utn.productos_api.model.Categoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class AjusteStockMasivoServiceTests {
+
+	@Autowired
+	private AjusteStockMasivoService ajusteStockMasivoService;
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Test
+	void informaCadaAjusteSinFallarElLote() {
+		Long id = crear(10);
+		Long otro = crear(2);
+
+		ResultadoAjusteMasivoDTO resultado = ajusteStockMasivoService.ajustar(List.of(
+				new AjusteStockMasivoDTO(id, null, -4),
+				new AjusteStockMasivoDTO(Long.MAX_VALUE, 5, null),
+				new AjusteStockMasivoDTO(otro, null, -3),
+				new AjusteStockMasivoDTO(id, 20, 1),
+				new AjusteStockMasivoDTO(id, null, 5),
+				new AjusteStockMasivoDTO(otro, 7, null)));
+
+		assertEquals(6, resultado.getTotal());
+		assertEquals(3, resultado.getAplicados());
+		List<Estado> estados = resultado.getFilas().stream().map(fila -> fila.getEstado()).toList();
+		assertEquals(List.of(Estado.APLICADO, Estado.NO_ENCONTRADO, Estado.STOCK_INSUFICIENTE,
+				Estado.INVALIDO, Estado.APLICADO, Estado.APLICADO), estados);
+		assertEquals(11, resultado.getFilas().get(4).getStock());
+		assertEquals(11, productoService.obtenerPorId(id).getStock());
+		assertEquals(7, productoService.obtenerPorId(otro).getStock());
+	}
+
+	@Test
+	void ajustesConcurrentesEnOrdenOpuestoNoSeBloquean() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			ids.add(crear(1_000));
+		}
+		List<AjusteStockMasivoDTO> ascendente = ids.stream().map(id -> new AjusteStockMasivoDTO(id, null, -1)).toList();
+		List<AjusteStockMasivoDTO> descendente = new ArrayList<>(ascendente);
+		Collections.reverse(descendente);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<ResultadoAjusteMasivoDTO>> tareas = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			List<AjusteStockMasivoDTO> ajustes = i % 2 == 0 ? ascendente : descendente;
+			tareas.add(executor.submit(() -> ajusteStockMasivoService.ajustar(ajustes)));
+		}
+		for (Future<ResultadoAjusteMasivoDTO> tarea : tareas) {
+			assertEquals(ids.size(), tarea.get().getAplicados());
+		}
+		executor.shutdown();
+
+		for (Long id : ids) {
+			assertEquals(980, productoService.obtenerPorId(id).getStock());
+		}
+	}
+
+	private Long crear(int stock) {
+		return productoService.crearProducto(
+				new ProductoDTO("Producto conciliado", null, 1.0, stock, Categoria.HOGAR)).getId();
+	}
+}
@@ -0,0 +1,58 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.ResultadoFilaDTO;
+import com.utn.productos_api.dto.ResultadoImportacionDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+class ImportacionServiceTests {
+
+	@Autowired
+	private ImportacionService importacionService;
+
+	@Test
+	void informaLasLineasMalFormadasSinCortarLaImportacion() throws Exception {
+		String ndjson = """
+				{"nombre": "Importado 1", "precio": 10.0, "stock": 1, "categoria": "HOGAR"}
+				{"nombre": "Importado 2", "precio":
+				{"nombre": "Importado 3", "precio": 10.0, "stock": 1, "categoria": "NO_EXISTE"}
+
+				{"nombre": "Importado 4", "precio": 10.0, "stock": 1, "categoria": "HOGAR"}
+				""";
+
+		ResultadoImportacionDTO resultado = importacionService.importarNdjson(new BufferedReader(new StringReader(ndjson)));
+
+		assertEquals(4, resultado.getTotal());
+		assertEquals(2, resultado.getCreados());
+		List<ResultadoFilaDTO> filas = resultado.getFilas();
+		assertNotNull(filas.get(0).getId());
+		assertEquals(List.of("La línea no es un JSON válido"), filas.get(1).getErrores());
+		assertEquals(List.of("categoria: valor inválido"), filas.get(2).getErrores());
+		assertNotNull(filas.get(3).getId());
+	}
+
+	@Test
+	void unErrorDeLaBaseNoSeDevuelveAlCliente() throws Exception {
+		// Pasa la validación (hasta 500 caracteres) pero no entra en la columna
+		String ndjson = """
+				{"nombre": "Importado largo", "descripcion": "%s", "precio": 10.0, "stock": 1, "categoria": "HOGAR"}
+				""".formatted("x".repeat(300));
+
+		ResultadoImportacionDTO resultado = importacionService.importarNdjson(new BufferedReader(new StringReader(ndjson)));
+
+		assertEquals(0, resultado.getCreados());
+		List<String> errores = resultado.getFilas().get(0).getErrores();
+		assertEquals(1, errores.size());
+		assertFalse(errores.get(0).toUpperCase().contains("DESCRIPCION"), errores.get(0));
+	}
+}
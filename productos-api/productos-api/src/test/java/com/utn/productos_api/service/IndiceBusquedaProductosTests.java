@@ -0,0 +1,141 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.BusquedaDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.dto.ResultadoBusquedaDTO;
+import com.utn.productos_api.model.Categoria;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceBusquedaProductosTests {
+
+	private static final String[] PALABRAS = {"remera", "remo", "cafe", "cafetera", "campera", "mesa", "mesada", "taza",
+			"de", "deportes", "lampara"};
+
+	@Test
+	void coincideConUnRecorridoCompletoDelCatalogo() {
+		Random random = new Random(7);
+		IndiceBusquedaProductos indice = new IndiceBusquedaProductos(null);
+		List<ProductoResponseDTO> catalogo = new ArrayList<>();
+		for (long id = 1; id <= 2_000; id++) {
+			ProductoResponseDTO producto = new ProductoResponseDTO(id, palabras(random, 2), palabras(random, 4),
+					10.0, 1, Categoria.values()[random.nextInt(Categoria.values().length)]);
+			catalogo.add(producto);
+			indice.indexar(producto);
+		}
+		// Bajas y reindexados, para que las listas no queden solo con IDs agregados al final
+		for (int i = 0; i < 300; i++) {
+			int posicion = random.nextInt(catalogo.size());
+			ProductoResponseDTO producto = catalogo.get(posicion);
+			if (random.nextBoolean()) {
+				indice.quitar(producto.getId());
+				catalogo.remove(posicion);
+			} else {
+				producto.setNombre(palabras(random, 2));
+				indice.indexar(producto);
+			}
+		}
+
+		for (String consulta : List.of("remera", "caf", "remera ca", "mesa mesa", "taza remo c", "cafetera m", "z",
+				"la", "de", "mesa de", "de mesa")) {
+			for (Categoria categoria : new Categoria[]{null, Categoria.HOGAR}) {
+				for (int limite : new int[]{1, 10, 100}) {
+					List<ResultadoBusquedaDTO> esperados = recorrer(catalogo, consulta, categoria, limite);
+					BusquedaDTO busqueda = indice.buscar(consulta, categoria, limite);
+					assertEquals(esperados, busqueda.getResultados(), consulta + " / " + categoria + " / " + limite);
+					assertFalse(busqueda.isTruncada());
+				}
+			}
+		}
+	}
+
+	@Test
+	void informaCuandoElPrefijoAbarcaDemasiadosTerminos() {
+		IndiceBusquedaProductos indice = new IndiceBusquedaProductos(null);
+		for (long id = 1; id <= IndiceBusquedaProductos.MAXIMO_TERMINOS_POR_PREFIJO + 1; id++) {
+			indice.indexar(new ProductoResponseDTO(id, "Producto " + (1000 + id), null, 10.0, 1, Categoria.HOGAR));
+		}
+
+		assertTrue(indice.buscar("1", null, 10).isTruncada());
+		assertFalse(indice.buscar("11", null, 10).isTruncada());
+	}
+
+	@Test
+	void laUltimaPalabraSeBuscaComoPrefijoAunqueSeaVacia() {
+		IndiceBusquedaProductos indice = new IndiceBusquedaProductos(null);
+		indice.indexar(new ProductoResponseDTO(1L, "Lámpara de pie", null, 10.0, 1, Categoria.HOGAR));
+		indice.indexar(new ProductoResponseDTO(2L, "Pelota de deportes", null, 10.0, 1, Categoria.DEPORTES));
+		indice.indexar(new ProductoResponseDTO(3L, "Consola portátil", null, 10.0, 1, Categoria.ELECTRONICA));
+		indice.indexar(new ProductoResponseDTO(4L, "Mesa decorativa", null, 10.0, 1, Categoria.HOGAR));
+		indice.indexar(new ProductoResponseDTO(5L, "Lámpara de mesa", null, 10.0, 1, Categoria.HOGAR));
+
+		assertEquals(List.of(1L, 5L), ids(indice.buscar("la", null, 10)));
+		assertEquals(List.of(2L, 4L), ids(indice.buscar("de", null, 10)));
+		assertEquals(List.of(3L), ids(indice.buscar("con", null, 10)));
+		// "mesa" sigue siendo un término exacto y "de", el prefijo
+		assertEquals(List.of(4L), ids(indice.buscar("mesa de", null, 10)));
+	}
+
+	private static List<Long> ids(BusquedaDTO busqueda) {
+		return busqueda.getResultados().stream().map(ResultadoBusquedaDTO::getId).toList();
+	}
+
+	private static String palabras(Random random, int cantidad) {
+		StringBuilder texto = new StringBuilder();
+		for (int i = 0; i < cantidad; i++) {
+			texto.append(PALABRAS[random.nextInt(PALABRAS.length)]).append(' ');
+		}
+		return texto.toString().trim();
+	}
+
+	// Referencia: puntúa cada producto término a término, sin índice. La última palabra de la consulta
+	// es el prefijo y se conserva tal cual, aunque sea una palabra vacía
+	private static List<ResultadoBusquedaDTO> recorrer(List<ProductoResponseDTO> catalogo, String consulta,
+			Categoria categoria, int limite) {
+		int ultimoEspacio = consulta.lastIndexOf(' ');
+		List<String> terminos = new ArrayList<>(NormalizadorTexto.terminos(consulta.substring(0, Math.max(ultimoEspacio, 0))));
+		terminos.add(consulta.substring(ultimoEspacio + 1));
+		List<ResultadoBusquedaDTO> resultados = new ArrayList<>();
+		for (ProductoResponseDTO producto : catalogo) {
+			if (categoria != null && producto.getCategoria() != categoria) {
+				continue;
+			}
+			List<String> nombre = NormalizadorTexto.terminos(producto.getNombre());
+			List<String> descripcion = NormalizadorTexto.terminos(producto.getDescripcion());
+			int puntaje = 0;
+			for (int i = 0; i < terminos.size() && puntaje >= 0; i++) {
+				boolean prefijo = i == terminos.size() - 1;
+				int delTermino = Math.max(puntaje(nombre, terminos.get(i), prefijo, 6, 4),
+						puntaje(descripcion, terminos.get(i), prefijo, 2, 1));
+				puntaje = delTermino == 0 ? -1 : puntaje + delTermino;
+			}
+			if (puntaje > 0) {
+				resultados.add(new ResultadoBusquedaDTO(producto.getId(), producto.getNombre(),
+						producto.getCategoria(), puntaje));
+			}
+		}
+		resultados.sort(Comparator.comparingInt(ResultadoBusquedaDTO::getPuntaje).reversed()
+				.thenComparing(ResultadoBusquedaDTO::getId));
+		return resultados.subList(0, Math.min(limite, resultados.size()));
+	}
+
+	private static int puntaje(List<String> campo, String termino, boolean prefijo, int exacto, int porPrefijo) {
+		int puntaje = 0;
+		for (String palabra : campo) {
+			if (palabra.equals(termino)) {
+				puntaje = exacto;
+			} else if (prefijo && palabra.startsWith(termino)) {
+				puntaje = Math.max(puntaje, porPrefijo);
+			}
+		}
+		return puntaje;
+	}
+}
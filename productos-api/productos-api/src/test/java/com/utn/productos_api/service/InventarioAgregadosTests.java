@@ -0,0 +1,39 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.model.Categoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class InventarioAgregadosTests {
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private InventarioAgregados inventarioAgregados;
+
+	@Test
+	void elRedondeoDeTotalesGrandesNoSeInformaComoDeriva() {
+		// Alrededor de 1e14 en la categoría: el redondeo de una sola suma ya supera el centavo
+		Random random = new Random(11);
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			ids.add(productoService.crearProducto(new ProductoDTO("Producto caro " + i, null,
+					999_999.99 - i * 0.37, 1_000_000 + random.nextInt(1_000), Categoria.ELECTRONICA)).getId());
+		}
+		for (int i = 0; i < 2_000; i++) {
+			productoService.incrementarStock(ids.get(random.nextInt(ids.size())), 1 + random.nextInt(50));
+		}
+
+		assertTrue(inventarioAgregados.reconciliar().isConsistente());
+	}
+}
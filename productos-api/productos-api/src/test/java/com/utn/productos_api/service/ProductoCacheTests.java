@@ -0,0 +1,80 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.PaginaDTO;
+import com.utn.productos_api.dto.ProductoResponseDTO;
+import com.utn.productos_api.event.ProductoEvento;
+import com.utn.productos_api.model.Categoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductoCacheTests {
+
+	@Autowired
+	private ProductoCache productoCache;
+
+	@Test
+	void unaCargaEnCursoNoDejaUnaPaginaViejaDespuesDeInvalidar() throws Exception {
+		Categoria categoria = Categoria.ALIMENTOS;
+		PaginaDTO<ProductoResponseDTO> vieja = new PaginaDTO<>(List.of(), null, null, false);
+		PaginaDTO<ProductoResponseDTO> nueva = new PaginaDTO<>(List.of(), null, null, false);
+		CountDownLatch cargando = new CountDownLatch(1);
+		CountDownLatch confirmado = new CountDownLatch(1);
+
+		// La carga lee la base antes del commit y termina de guardarse después de la invalidación
+		CompletableFuture<PaginaDTO<ProductoResponseDTO>> enCurso = CompletableFuture.supplyAsync(() ->
+				productoCache.obtenerPaginaPorCategoria(categoria, 0, 10, () -> {
+					cargando.countDown();
+					esperar(confirmado);
+					return vieja;
+				}));
+		assertTrue(cargando.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Void> invalidacion = CompletableFuture.runAsync(() -> productoCache.alCambiarProducto(
+				ProductoEvento.creado(new ProductoResponseDTO(1L, "Nuevo", null, 1.0, 1, categoria))));
+		Thread.sleep(100);
+		confirmado.countDown();
+		enCurso.get(5, TimeUnit.SECONDS);
+		invalidacion.get(5, TimeUnit.SECONDS);
+
+		assertSame(nueva, productoCache.obtenerPaginaPorCategoria(categoria, 0, 10, () -> nueva));
+	}
+
+	@Test
+	void unaCargaEnCursoNoDejaUnProductoViejoDespuesDeInvalidar() throws Exception {
+		long id = 424_242L;
+		ProductoResponseDTO viejo = new ProductoResponseDTO(id, "Viejo", null, 1.0, 1, Categoria.HOGAR);
+		ProductoResponseDTO nuevo = new ProductoResponseDTO(id, "Nuevo", null, 2.0, 1, Categoria.HOGAR);
+		CountDownLatch cargando = new CountDownLatch(1);
+		CountDownLatch confirmado = new CountDownLatch(1);
+
+		CompletableFuture<ProductoResponseDTO> enCurso = CompletableFuture.supplyAsync(() ->
+				productoCache.obtenerPorId(id, clave -> {
+					cargando.countDown();
+					esperar(confirmado);
+					return viejo;
+				}));
+		assertTrue(cargando.await(5, TimeUnit.SECONDS));
+		productoCache.alCambiarProducto(ProductoEvento.actualizado(viejo, nuevo));
+		confirmado.countDown();
+		assertSame(viejo, enCurso.get(5, TimeUnit.SECONDS));
+
+		assertSame(nuevo, productoCache.obtenerPorId(id, clave -> nuevo));
+	}
+
+	private static void esperar(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.exception.StockInsuficienteException;
+import com.utn.productos_api.model.Categoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ProductoServiceStockTests {
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Test
+	void decrementosConcurrentesNoPierdenActualizaciones() throws Exception {
+		int stockInicial = 2_000;
+		Long id = productoService.crearProducto(
+				new ProductoDTO("Producto caliente", null, 10.0, stockInicial, Categoria.ELECTRONICA)).getId();
+
+		AtomicInteger exitosos = new AtomicInteger();
+		AtomicInteger rechazados = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		List<Future<?>> tareas = new ArrayList<>();
+		// Se piden más unidades de las que hay para forzar rechazos por stock insuficiente
+		for (int i = 0; i < stockInicial + 500; i++) {
+			tareas.add(executor.submit(() -> {
+				try {
+					productoService.decrementarStock(id, 1);
+					exitosos.incrementAndGet();
+				} catch (StockInsuficienteException e) {
+					rechazados.incrementAndGet();
+				}
+			}));
+		}
+		for (Future<?> tarea : tareas) {
+			tarea.get();
+		}
+		executor.shutdown();
+
+		assertEquals(stockInicial, exitosos.get());
+		assertEquals(500, rechazados.get());
+		assertEquals(0, productoService.obtenerPorId(id).getStock());
+	}
+
+	@Test
+	void decrementarMasQueElStockLanzaExcepcion() {
+		Long id = productoService.crearProducto(
+				new ProductoDTO("Producto escaso", null, 5.0, 3, Categoria.HOGAR)).getId();
+
+		assertThrows(StockInsuficienteException.class, () -> productoService.decrementarStock(id, 4));
+		assertEquals(8, productoService.incrementarStock(id, 5).getStock());
+	}
+
+}
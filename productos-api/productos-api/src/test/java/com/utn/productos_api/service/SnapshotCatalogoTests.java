@@ -0,0 +1,110 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.model.Categoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SnapshotCatalogoTests {
+
+	private static final Path ARCHIVO = Path.of("target", "snapshot-tests", "catalogo.snap");
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private IndiceBusquedaProductos indiceBusqueda;
+
+	@Autowired
+	private InventarioAgregados inventarioAgregados;
+
+	// Corre antes de crear el contexto: el snapshot tiene que existir cuando arranca la aplicación
+	@DynamicPropertySource
+	static void snapshot(DynamicPropertyRegistry registry) throws IOException {
+		Files.createDirectories(ARCHIVO.getParent());
+		Files.write(ARCHIVO, snapshot(new Object[]{9001L, "Termo restaurado", "HOGAR"},
+				new Object[]{9002L, "Mate restaurado", "HOGAR"}));
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:snapshotdb");
+		registry.add("productos.snapshot.enabled", () -> "true");
+		registry.add("productos.snapshot.archivo", ARCHIVO::toString);
+	}
+
+	@Test
+	void seRestauraAntesDeCalentarElIndiceYLosAgregados() {
+		assertEquals("Termo restaurado", productoService.obtenerPorId(9001L).getNombre());
+		assertEquals(2, indiceBusqueda.buscar("restaurado", null, 10).getResultados().size());
+		assertEquals(2, inventarioAgregados.productos(Categoria.HOGAR));
+	}
+
+	@Test
+	void unaPrecargaFallidaNoDejaNadaCargado() throws IOException {
+		IndiceBusquedaProductos indice = new IndiceBusquedaProductos(null);
+		InventarioAgregados agregados = new InventarioAgregados(null, null);
+		SnapshotCatalogo snapshotCatalogo = new SnapshotCatalogo(true, null, null, null, null, indice, agregados);
+		Path archivo = ARCHIVO.resolveSibling("fallido.snap");
+		// El segundo producto tiene una categoría que no existe
+		Files.write(archivo, snapshot(new Object[]{1L, "Termo", "HOGAR"}, new Object[]{2L, "Mate", "INEXISTENTE"}));
+
+		assertThrows(IllegalArgumentException.class, () -> snapshotCatalogo.precargar(SnapshotCatalogo.mapear(archivo)));
+		assertTrue(indice.buscar("termo", null, 10).getResultados().isEmpty());
+		assertEquals(0, agregados.productos(Categoria.HOGAR));
+	}
+
+	// Productos como {id, nombre, categoría}, en el formato que escribe SnapshotCatalogo
+	private static byte[] snapshot(Object[]... productos) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(0x50524F44);
+			out.writeInt(1);
+			long version = 0;
+			for (Object[] producto : productos) {
+				out.writeByte(1);
+				out.writeLong((Long) producto[0]);
+				out.writeLong(++version);
+				out.writeDouble(10.0);
+				out.writeInt(5);
+				texto(out, (String) producto[2]);
+				texto(out, (String) producto[1]);
+				texto(out, null);
+			}
+			out.writeByte(0);
+			out.writeLong(productos.length);
+			out.writeLong(0);
+			out.writeLong(version);
+			out.flush();
+			CRC32 crc = new CRC32();
+			crc.update(bytes.toByteArray());
+			out.writeLong(crc.getValue());
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void texto(DataOutputStream out, String texto) throws IOException {
+		if (texto == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+}
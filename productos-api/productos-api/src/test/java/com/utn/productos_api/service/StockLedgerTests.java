@@ -0,0 +1,98 @@
+package com.utn.productos_api.service;
+
+import com.utn.productos_api.dto.AjusteStockMasivoDTO;
+import com.utn.productos_api.dto.ProductoDTO;
+import com.utn.productos_api.dto.ResultadoAjusteStockDTO;
+import com.utn.productos_api.model.Categoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "productos.stock.ledger.enabled=true")
+class StockLedgerTests {
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private StockLedger stockLedger;
+
+	@Autowired
+	private InventarioAgregados inventarioAgregados;
+
+	@Autowired
+	private AjusteStockMasivoService ajusteStockMasivoService;
+
+	@Test
+	void unRollbackNoDejaElStockNuevoEnElLedger() {
+		Long id = productoService.crearProducto(
+				new ProductoDTO("Producto en ledger", null, 10.0, 5, Categoria.HOGAR)).getId();
+		productoService.incrementarStock(id, 1);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			productoService.actualizarProducto(id, new ProductoDTO("Renombrado", null, 10.0, 9, Categoria.HOGAR));
+			status.setRollbackOnly();
+		});
+		assertEquals(6, productoService.obtenerPorId(id).getStock());
+
+		productoService.actualizarProducto(id, new ProductoDTO("Renombrado", null, 10.0, 9, Categoria.HOGAR));
+		assertEquals(9, productoService.obtenerPorId(id).getStock());
+	}
+
+	@Test
+	void elAjusteMasivoInformaElStockAnteriorDelMismoCas() throws Exception {
+		Long id = productoService.crearProducto(
+				new ProductoDTO("Producto ajustado", null, 1.0, 0, Categoria.HOGAR)).getId();
+		List<AjusteStockMasivoDTO> ajustes = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			ajustes.add(new AjusteStockMasivoDTO(id, i % 2 == 0 ? 100 : 500, null));
+		}
+		int incrementos = 20_000;
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> concurrentes = executor.submit(() -> {
+			for (int i = 0; i < incrementos; i++) {
+				productoService.incrementarStock(id, 1);
+			}
+		});
+		List<ResultadoAjusteStockDTO> filas = ajusteStockMasivoService.ajustar(ajustes).getFilas();
+		concurrentes.get();
+		executor.shutdown();
+
+		// Cada incremento cae entre dos ajustes, o después del último: ninguno se pierde ni se cuenta dos veces
+		int contados = 0;
+		int stock = 0;
+		for (ResultadoAjusteStockDTO fila : filas) {
+			contados += fila.getStockAnterior() - stock;
+			stock = fila.getStock();
+		}
+		contados += productoService.obtenerPorId(id).getStock() - stock;
+		assertEquals(incrementos, contados);
+	}
+
+	@Test
+	void laReconciliacionCuentaLosDeltasSinEscribir() {
+		Long id = productoService.crearProducto(
+				new ProductoDTO("Producto reconciliado", null, 2.5, 40, Categoria.DEPORTES)).getId();
+		for (int i = 0; i < 10; i++) {
+			productoService.decrementarStock(id, 3);
+			assertTrue(inventarioAgregados.reconciliar().isConsistente());
+		}
+		stockLedger.flush();
+		assertTrue(inventarioAgregados.reconciliar().isConsistente());
+	}
+}